@@ -1,12 +1,21 @@
 package com.example.libraryserver.book.data;
 
 import com.example.libraryserver.user.data.User;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.jpa.domain.AbstractPersistable;
 
 import javax.persistence.ElementCollection;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
@@ -16,9 +25,12 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = @Index(columnList = "isbn"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Book extends AbstractPersistable<Long> {
 
-  @NotNull private UUID identifier;
+  @NaturalId @NotNull private UUID identifier;
 
   @NotNull
   @Pattern(regexp = "[0-9]{13}")
@@ -33,12 +45,18 @@ public class Book extends AbstractPersistable<Long> {
   private String description;
 
   @NotEmpty
+  @BatchSize(size = 100)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @ElementCollection(fetch = FetchType.EAGER)
   private Set<String> authors = new HashSet<>();
 
   @ManyToOne(fetch = FetchType.EAGER)
   private User borrowedByUser;
 
+  @Version private Long version;
+
+  @Embedded private EscapedBookFields escapedFields;
+
   public Book() {}
 
   public Book(String isbn, String title, String description, Set<String> authors) {
@@ -112,6 +130,18 @@ public class Book extends AbstractPersistable<Long> {
     this.borrowedByUser = borrowedbyUser;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public EscapedBookFields getEscapedFields() {
+    return escapedFields;
+  }
+
+  public void setEscapedFields(EscapedBookFields escapedFields) {
+    this.escapedFields = escapedFields;
+  }
+
   @Override
   public String toString() {
     return "Book{"
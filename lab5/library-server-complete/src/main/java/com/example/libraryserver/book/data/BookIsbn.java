@@ -0,0 +1,11 @@
+package com.example.libraryserver.book.data;
+
+import java.util.UUID;
+
+/** Projection of a {@link Book} onto its ISBN and identifier. */
+public interface BookIsbn {
+
+  String getIsbn();
+
+  UUID getIdentifier();
+}
@@ -0,0 +1,10 @@
+package com.example.libraryserver.book.data;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/** Looks books up by their natural id, so the natural id cache is used when it is enabled. */
+public interface BookNaturalIdRepository {
+
+  Optional<Book> findOneByIdentifier(UUID identifier);
+}
@@ -0,0 +1,41 @@
+package com.example.libraryserver.book.data;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves the identifier through the natural id cache if the second level cache is enabled.
+ * Otherwise the book is loaded with its authors and borrower in a single query, as resolving the
+ * natural id first would need an extra query.
+ */
+@Transactional(readOnly = true)
+public class BookNaturalIdRepositoryImpl implements BookNaturalIdRepository {
+
+  private final EntityManager entityManager;
+
+  public BookNaturalIdRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public Optional<Book> findOneByIdentifier(UUID identifier) {
+    Session session = entityManager.unwrap(Session.class);
+    if (session.getSessionFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+      return session.bySimpleNaturalId(Book.class).loadOptional(identifier);
+    }
+    return entityManager
+        .createQuery(
+            "select distinct b from Book b left join fetch b.authors "
+                + "left join fetch b.borrowedByUser u left join fetch u.roles "
+                + "where b.identifier = :identifier",
+            Book.class)
+        .setParameter("identifier", identifier)
+        .getResultList()
+        .stream()
+        .findFirst();
+  }
+}
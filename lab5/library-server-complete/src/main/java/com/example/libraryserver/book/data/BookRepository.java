@@ -1,11 +1,70 @@
 package com.example.libraryserver.book.data;
 
+import com.example.libraryserver.user.data.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
-  Optional<Book> findOneByIdentifier(UUID identifier);
+public interface BookRepository extends JpaRepository<Book, Long>, BookNaturalIdRepository {
+
+  @EntityGraph(attributePaths = "borrowedByUser")
+  @Override
+  List<Book> findAll();
+
+  @EntityGraph(attributePaths = "borrowedByUser")
+  Slice<Book> findAllByOrderByIdentifierAsc(Pageable pageable);
+
+  @EntityGraph(attributePaths = "borrowedByUser")
+  Slice<Book> findAllByIdentifierGreaterThanOrderByIdentifierAsc(
+      UUID identifier, Pageable pageable);
+
+  @EntityGraph(attributePaths = "borrowedByUser")
+  List<Book> findAllByIdentifierIn(Collection<UUID> identifiers);
+
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query(
+      "select b from Book b left join fetch b.authors left join fetch b.borrowedByUser "
+          + "order by b.id")
+  Stream<Book> streamAll();
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("select b.isbn as isbn, b.identifier as identifier from Book b")
+  Stream<BookIsbn> streamAllIsbns();
+
+  @EntityGraph(attributePaths = {"authors", "borrowedByUser", "borrowedByUser.roles"})
+  Optional<Book> findFirstByIsbnOrderByIdAsc(String isbn);
+
+  List<Book> findAllByEscapedFieldsTitleIsNull(Pageable pageable);
+
+  boolean existsByIdentifier(UUID identifier);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update Book b set b.borrowedByUser = :user, b.version = b.version + 1 "
+          + "where b.identifier = :identifier and b.borrowedByUser is null")
+  int borrowForUser(@Param("identifier") UUID identifier, @Param("user") User user);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "update Book b set b.borrowedByUser = null, b.version = b.version + 1 "
+          + "where b.identifier = :identifier and b.borrowedByUser = :user")
+  int returnForUser(@Param("identifier") UUID identifier, @Param("user") User user);
 }
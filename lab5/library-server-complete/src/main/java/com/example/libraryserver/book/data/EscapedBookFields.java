@@ -0,0 +1,62 @@
+package com.example.libraryserver.book.data;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.Lob;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Output escaped copy of the fields of a {@link Book}. It is computed when the book is saved, so
+ * reading a book does not need to escape its fields again.
+ */
+@Embeddable
+public class EscapedBookFields {
+
+  /** Output escaping encodes line feeds, so they cannot occur within an escaped author. */
+  private static final String AUTHOR_SEPARATOR = "\n";
+
+  @Column(name = "escaped_isbn")
+  private String isbn;
+
+  @Column(name = "escaped_title", length = 2040)
+  private String title;
+
+  @Column(name = "escaped_description", length = 16000)
+  private String description;
+
+  // the number of authors is not limited and escaping may expand each character eightfold
+  @Lob
+  @Column(name = "escaped_authors")
+  private String authors;
+
+  protected EscapedBookFields() {}
+
+  public EscapedBookFields(
+      String isbn, String title, String description, Collection<String> authors) {
+    this.isbn = isbn;
+    this.title = title;
+    this.description = description;
+    this.authors = String.join(AUTHOR_SEPARATOR, authors);
+  }
+
+  public String getIsbn() {
+    return isbn;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public List<String> getAuthors() {
+    return authors.isEmpty()
+        ? Collections.emptyList()
+        : Arrays.asList(authors.split(AUTHOR_SEPARATOR));
+  }
+}
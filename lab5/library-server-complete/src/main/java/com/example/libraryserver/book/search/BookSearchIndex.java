@@ -0,0 +1,265 @@
+package com.example.libraryserver.book.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over title, authors and description of books, ranked with BM25.
+ *
+ * <p>Every indexed book gets an internal document number. Postings are kept as growing arrays of
+ * document numbers and (field weighted) term frequencies. Updating or removing a book only marks
+ * its old document as deleted. Deleted documents are skipped when ranking and are dropped from the
+ * postings once they outnumber the live documents.
+ */
+public class BookSearchIndex {
+
+  private static final float K1 = 1.2f;
+  private static final float B = 0.75f;
+
+  private static final int TITLE_WEIGHT = 3;
+  private static final int AUTHOR_WEIGHT = 2;
+  private static final int DESCRIPTION_WEIGHT = 1;
+
+  private static final int MINIMUM_DELETED_FOR_COMPACTION = 64;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Postings> postings = new HashMap<>();
+  private final Map<UUID, Integer> documents = new HashMap<>();
+  private final List<UUID> identifiers = new ArrayList<>();
+  private int[] lengths = new int[1024];
+  private long totalLength;
+
+  public void index(UUID identifier, String title, String description, Collection<String> authors) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    addTerms(frequencies, title, TITLE_WEIGHT);
+    addTerms(frequencies, description, DESCRIPTION_WEIGHT);
+    for (String author : authors) {
+      addTerms(frequencies, author, AUTHOR_WEIGHT);
+    }
+
+    lock.writeLock().lock();
+    try {
+      removeDocument(identifier);
+
+      int document = identifiers.size();
+      identifiers.add(identifier);
+      documents.put(identifier, document);
+      if (document == lengths.length) {
+        lengths = Arrays.copyOf(lengths, lengths.length * 2);
+      }
+      int length = 0;
+      for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+        postings
+            .computeIfAbsent(frequency.getKey(), t -> new Postings())
+            .add(document, frequency.getValue());
+        length += frequency.getValue();
+      }
+      lengths[document] = length;
+      totalLength += length;
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(UUID identifier) {
+    lock.writeLock().lock();
+    try {
+      removeDocument(identifier);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public BookSearchResult search(String query, int page, int size) {
+    Set<String> terms = new LinkedHashSet<>(tokenize(query));
+    if (terms.isEmpty()) {
+      return new BookSearchResult(Collections.emptyList(), 0);
+    }
+
+    lock.readLock().lock();
+    try {
+      int liveDocuments = documents.size();
+      if (liveDocuments == 0) {
+        return new BookSearchResult(Collections.emptyList(), 0);
+      }
+      float averageLength = (float) totalLength / liveDocuments;
+      float[] scores = new float[identifiers.size()];
+      List<Integer> matches = new ArrayList<>();
+
+      for (String term : terms) {
+        Postings termPostings = postings.get(term);
+        if (termPostings == null) {
+          continue;
+        }
+        int documentFrequency = 0;
+        for (int i = 0; i < termPostings.size; i++) {
+          if (identifiers.get(termPostings.documents[i]) != null) {
+            documentFrequency++;
+          }
+        }
+        if (documentFrequency == 0) {
+          continue;
+        }
+        double idf =
+            Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (int i = 0; i < termPostings.size; i++) {
+          int document = termPostings.documents[i];
+          if (identifiers.get(document) == null) {
+            continue;
+          }
+          int frequency = termPostings.frequencies[i];
+          if (scores[document] == 0) {
+            matches.add(document);
+          }
+          scores[document] +=
+              (float)
+                  (idf
+                      * frequency
+                      * (K1 + 1)
+                      / (frequency + K1 * (1 - B + B * lengths[document] / averageLength)));
+        }
+      }
+
+      List<UUID> result =
+          matches.stream()
+              .sorted((d1, d2) -> Float.compare(scores[d2], scores[d1]))
+              .skip((long) page * size)
+              .limit(size)
+              .map(identifiers::get)
+              .collect(Collectors.toList());
+      return new BookSearchResult(result, matches.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int documentCount() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int termCount() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeDocument(UUID identifier) {
+    Integer document = documents.remove(identifier);
+    if (document != null) {
+      identifiers.set(document, null);
+      totalLength -= lengths[document];
+    }
+  }
+
+  /** Drops deleted documents and renumbers the live ones, keeping their order. */
+  private void compactIfNeeded() {
+    int deleted = identifiers.size() - documents.size();
+    if (deleted < MINIMUM_DELETED_FOR_COMPACTION || deleted <= documents.size()) {
+      return;
+    }
+
+    int[] renumbered = new int[identifiers.size()];
+    List<UUID> liveIdentifiers = new ArrayList<>(documents.size());
+    int[] liveLengths = new int[Math.max(1024, documents.size())];
+    for (int document = 0; document < identifiers.size(); document++) {
+      UUID identifier = identifiers.get(document);
+      if (identifier == null) {
+        renumbered[document] = -1;
+      } else {
+        int live = liveIdentifiers.size();
+        renumbered[document] = live;
+        liveIdentifiers.add(identifier);
+        liveLengths[live] = lengths[document];
+        documents.put(identifier, live);
+      }
+    }
+    postings.values().removeIf(p -> p.compact(renumbered) == 0);
+    identifiers.clear();
+    identifiers.addAll(liveIdentifiers);
+    lengths = liveLengths;
+  }
+
+  private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+    for (String term : tokenize(text)) {
+      frequencies.merge(term, weight, Integer::sum);
+    }
+  }
+
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (letterOrDigit && start < 0) {
+        start = i;
+      } else if (!letterOrDigit && start >= 0) {
+        if (i - start > 1) {
+          tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private static final class Postings {
+
+    private int[] documents = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void add(int document, int frequency) {
+      if (size == documents.length) {
+        documents = Arrays.copyOf(documents, size * 2);
+        frequencies = Arrays.copyOf(frequencies, size * 2);
+      }
+      documents[size] = document;
+      frequencies[size] = frequency;
+      size++;
+    }
+
+    int compact(int[] renumbered) {
+      int live = 0;
+      for (int i = 0; i < size; i++) {
+        int document = renumbered[documents[i]];
+        if (document >= 0) {
+          documents[live] = document;
+          frequencies[live] = frequencies[i];
+          live++;
+        }
+      }
+      size = live;
+      if (size < documents.length / 4) {
+        documents = Arrays.copyOf(documents, Math.max(4, size * 2));
+        frequencies = Arrays.copyOf(frequencies, Math.max(4, size * 2));
+      }
+      return size;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.libraryserver.book.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Actuator endpoint to inspect and rebuild the book search index. */
+@Component
+@Endpoint(id = "booksearch")
+public class BookSearchIndexEndpoint {
+
+  private final BookSearchIndexer bookSearchIndexer;
+
+  public BookSearchIndexEndpoint(BookSearchIndexer bookSearchIndexer) {
+    this.bookSearchIndexer = bookSearchIndexer;
+  }
+
+  @ReadOperation
+  public Map<String, Integer> index() {
+    Map<String, Integer> index = new LinkedHashMap<>();
+    index.put("documents", bookSearchIndexer.documentCount());
+    index.put("terms", bookSearchIndexer.termCount());
+    return index;
+  }
+
+  @WriteOperation
+  public Map<String, Integer> rebuild() {
+    bookSearchIndexer.rebuild();
+    return index();
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.libraryserver.book.search;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.book.service.BookDeletedEvent;
+import com.example.libraryserver.book.service.BookSavedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link BookSearchIndex} in sync with the catalog. The index is built from the database
+ * once the application is ready and updated after each committed change of a book.
+ */
+@Component
+public class BookSearchIndexer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BookSearchIndexer.class);
+
+  private final BookRepository bookRepository;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+
+  private final Object updateMonitor = new Object();
+
+  private volatile BookSearchIndex index = new BookSearchIndex();
+
+  // guarded by updateMonitor, changes to replay on the new index while a rebuild is running
+  private List<Consumer<BookSearchIndex>> pendingChanges;
+
+  public BookSearchIndexer(
+      BookRepository bookRepository,
+      EntityManager entityManager,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.bookRepository = bookRepository;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+
+    Gauge.builder("library.search.index.documents", this, BookSearchIndexer::documentCount)
+        .description("Number of books in the search index")
+        .register(meterRegistry);
+    Gauge.builder("library.search.index.terms", this, BookSearchIndexer::termCount)
+        .description("Number of distinct terms in the search index")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  @TransactionalEventListener
+  public void onBookSaved(BookSavedEvent event) {
+    update(
+        i ->
+            i.index(
+                event.getIdentifier(),
+                event.getTitle(),
+                event.getDescription(),
+                event.getAuthors()));
+  }
+
+  @TransactionalEventListener
+  public void onBookDeleted(BookDeletedEvent event) {
+    update(i -> i.remove(event.getIdentifier()));
+  }
+
+  public BookSearchResult search(String query, int page, int size) {
+    return index.search(query, page, size);
+  }
+
+  /**
+   * Builds a new index from the database and replaces the current one. Changes committed while
+   * the new index is built are applied to the current index and replayed on the new one after all
+   * books have been read, so they win over the possibly older rows read by the rebuild.
+   */
+  public synchronized void rebuild() {
+    LOGGER.info("Rebuilding book search index");
+
+    BookSearchIndex newIndex = new BookSearchIndex();
+    synchronized (updateMonitor) {
+      pendingChanges = new ArrayList<>();
+    }
+    try {
+      transactionTemplate.execute(
+          status -> {
+            try (Stream<Book> books = bookRepository.streamAll()) {
+              books.forEach(
+                  b -> {
+                    newIndex.index(
+                        b.getIdentifier(), b.getTitle(), b.getDescription(), b.getAuthors());
+                    entityManager.detach(b);
+                  });
+            }
+            return null;
+          });
+      synchronized (updateMonitor) {
+        pendingChanges.forEach(change -> change.accept(newIndex));
+        index = newIndex;
+      }
+    } finally {
+      synchronized (updateMonitor) {
+        pendingChanges = null;
+      }
+    }
+
+    LOGGER.info(
+        "Rebuilt book search index with {} books and {} terms",
+        newIndex.documentCount(),
+        newIndex.termCount());
+  }
+
+  public int documentCount() {
+    return index.documentCount();
+  }
+
+  public int termCount() {
+    return index.termCount();
+  }
+
+  private void update(Consumer<BookSearchIndex> change) {
+    synchronized (updateMonitor) {
+      change.accept(index);
+      if (pendingChanges != null) {
+        pendingChanges.add(change);
+      }
+    }
+  }
+}
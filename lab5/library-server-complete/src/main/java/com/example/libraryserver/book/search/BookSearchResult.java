@@ -0,0 +1,23 @@
+package com.example.libraryserver.book.search;
+
+import java.util.List;
+import java.util.UUID;
+
+public class BookSearchResult {
+
+  private final List<UUID> identifiers;
+  private final long total;
+
+  public BookSearchResult(List<UUID> identifiers, long total) {
+    this.identifiers = identifiers;
+    this.total = total;
+  }
+
+  public List<UUID> getIdentifiers() {
+    return identifiers;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+}
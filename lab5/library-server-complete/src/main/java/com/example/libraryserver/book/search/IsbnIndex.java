@@ -0,0 +1,211 @@
+package com.example.libraryserver.book.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Maps ISBNs to book identifiers. The 13 digits of an ISBN are stored as <code>long</code> key in
+ * an open addressing hash table with linear probing, so lookups neither box the key nor hash a
+ * String. Readers use optimistic reads and only fall back to a read lock if a write interfered.
+ *
+ * <p>The current ISBN of each identifier is tracked as well, so changing the ISBN of a book or
+ * deleting it removes its previous key. That map is only used by writers.
+ */
+public class IsbnIndex {
+
+  private static final long NO_ISBN = -1L;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final StampedLock lock = new StampedLock();
+
+  private final Map<UUID, Long> isbns = new HashMap<>();
+
+  private Table table = new Table(INITIAL_CAPACITY);
+  private int size;
+
+  /**
+   * Converts an ISBN into the key of the index.
+   *
+   * @return the key or <code>-1</code> if the value does not consist of exactly 13 digits
+   */
+  public static long toKey(String isbn) {
+    if (isbn == null || isbn.length() != 13) {
+      return NO_ISBN;
+    }
+    long key = 0;
+    for (int i = 0; i < 13; i++) {
+      char digit = isbn.charAt(i);
+      if (digit < '0' || digit > '9') {
+        return NO_ISBN;
+      }
+      key = key * 10 + (digit - '0');
+    }
+    return key;
+  }
+
+  /** @return the identifier of the book with the given ISBN key or <code>null</code> */
+  public UUID get(long isbn) {
+    if (isbn == NO_ISBN) {
+      return null;
+    }
+    long stamp = lock.tryOptimisticRead();
+    UUID identifier = table.get(isbn);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        identifier = table.get(isbn);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return identifier;
+  }
+
+  /** Maps the ISBN to the identifier and removes the previous ISBN of the identifier. */
+  public void put(long isbn, UUID identifier) {
+    if (isbn == NO_ISBN) {
+      remove(identifier);
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      Long previousIsbn = isbns.put(identifier, isbn);
+      if (previousIsbn != null
+          && previousIsbn != isbn
+          && table.remove(previousIsbn, identifier)) {
+        size--;
+      }
+      if (table.put(isbn, identifier)) {
+        size++;
+        if (size * 2 > table.capacity()) {
+          table = table.resize(table.capacity() * 2);
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** Removes the ISBN of the identifier, but only if the ISBN still maps to the identifier. */
+  public void remove(UUID identifier) {
+    long stamp = lock.writeLock();
+    try {
+      Long isbn = isbns.remove(identifier);
+      if (isbn != null && table.remove(isbn, identifier)) {
+        size--;
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  public int size() {
+    long stamp = lock.readLock();
+    try {
+      return size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  private static final class Table {
+
+    private final long[] keys;
+    private final long[] mostSignificantBits;
+    private final long[] leastSignificantBits;
+    private final int mask;
+
+    Table(int capacity) {
+      keys = new long[capacity];
+      Arrays.fill(keys, NO_ISBN);
+      mostSignificantBits = new long[capacity];
+      leastSignificantBits = new long[capacity];
+      mask = capacity - 1;
+    }
+
+    int capacity() {
+      return keys.length;
+    }
+
+    UUID get(long key) {
+      int slot = slot(key);
+      for (int probes = 0; probes < keys.length; probes++) {
+        long current = keys[slot];
+        if (current == key) {
+          return new UUID(mostSignificantBits[slot], leastSignificantBits[slot]);
+        }
+        if (current == NO_ISBN) {
+          return null;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return null;
+    }
+
+    /** @return <code>true</code> if the key has been added, <code>false</code> if replaced */
+    boolean put(long key, UUID identifier) {
+      int slot = slot(key);
+      while (keys[slot] != NO_ISBN && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      boolean added = keys[slot] == NO_ISBN;
+      mostSignificantBits[slot] = identifier.getMostSignificantBits();
+      leastSignificantBits[slot] = identifier.getLeastSignificantBits();
+      keys[slot] = key;
+      return added;
+    }
+
+    boolean remove(long key, UUID identifier) {
+      int slot = slot(key);
+      while (keys[slot] != key) {
+        if (keys[slot] == NO_ISBN) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      if (mostSignificantBits[slot] != identifier.getMostSignificantBits()
+          || leastSignificantBits[slot] != identifier.getLeastSignificantBits()) {
+        return false;
+      }
+
+      // backward shift deletion keeps probe sequences intact without tombstones
+      int free = slot;
+      int next = (free + 1) & mask;
+      while (keys[next] != NO_ISBN) {
+        int home = slot(keys[next]);
+        if (((next - home) & mask) >= ((next - free) & mask)) {
+          keys[free] = keys[next];
+          mostSignificantBits[free] = mostSignificantBits[next];
+          leastSignificantBits[free] = leastSignificantBits[next];
+          free = next;
+        }
+        next = (next + 1) & mask;
+      }
+      keys[free] = NO_ISBN;
+      return true;
+    }
+
+    Table resize(int capacity) {
+      Table resized = new Table(capacity);
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (keys[slot] != NO_ISBN) {
+          resized.put(
+              keys[slot],
+              new UUID(mostSignificantBits[slot], leastSignificantBits[slot]));
+        }
+      }
+      return resized;
+    }
+
+    private int slot(long key) {
+      long hash = key;
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      return (int) hash & mask;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.libraryserver.book.search;
+
+import com.example.libraryserver.book.data.BookIsbn;
+import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.book.service.BookDeletedEvent;
+import com.example.libraryserver.book.service.BookSavedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link IsbnIndex} in sync with the catalog. The index is loaded from the database once
+ * the application is ready and updated after each committed change of a book.
+ */
+@Component
+public class IsbnIndexer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IsbnIndexer.class);
+
+  private final BookRepository bookRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final IsbnIndex index = new IsbnIndex();
+
+  public IsbnIndexer(
+      BookRepository bookRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.bookRepository = bookRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+
+    Gauge.builder("library.isbn.index.size", index, IsbnIndex::size)
+        .description("Number of ISBNs in the ISBN index")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    transactionTemplate.execute(
+        status -> {
+          try (Stream<BookIsbn> isbns = bookRepository.streamAllIsbns()) {
+            isbns.forEach(b -> index.put(IsbnIndex.toKey(b.getIsbn()), b.getIdentifier()));
+          }
+          return null;
+        });
+    LOGGER.info("Loaded ISBN index with {} books", index.size());
+  }
+
+  @TransactionalEventListener
+  public void onBookSaved(BookSavedEvent event) {
+    index.put(IsbnIndex.toKey(event.getIsbn()), event.getIdentifier());
+  }
+
+  @TransactionalEventListener
+  public void onBookDeleted(BookDeletedEvent event) {
+    index.remove(event.getIdentifier());
+  }
+
+  public Optional<UUID> findIdentifier(String isbn) {
+    return Optional.ofNullable(index.get(IsbnIndex.toKey(isbn)));
+  }
+
+  public void put(String isbn, UUID identifier) {
+    index.put(IsbnIndex.toKey(isbn), identifier);
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.libraryserver.book.service;
+
+import java.util.UUID;
+
+/** Published by the {@link BookService} when a book has been deleted. */
+public class BookDeletedEvent {
+
+  private final UUID identifier;
+
+  public BookDeletedEvent(UUID identifier) {
+    this.identifier = identifier;
+  }
+
+  public UUID getIdentifier() {
+    return identifier;
+  }
+}
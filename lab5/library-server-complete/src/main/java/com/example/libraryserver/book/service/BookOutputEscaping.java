@@ -0,0 +1,36 @@
+package com.example.libraryserver.book.service;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.EscapedBookFields;
+import com.example.libraryserver.common.web.HtmlJavaScriptEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Output escaping of book fields for HTML and JavaScript contexts. */
+public final class BookOutputEscaping {
+
+  private BookOutputEscaping() {}
+
+  public static String escape(String value) {
+    return HtmlJavaScriptEncoder.encode(value);
+  }
+
+  public static EscapedBookFields escape(Book book) {
+    List<String> authors = new ArrayList<>(book.getAuthors().size());
+    for (String author : book.getAuthors()) {
+      authors.add(escape(author));
+    }
+    return new EscapedBookFields(
+        escape(book.getIsbn()), escape(book.getTitle()), escape(book.getDescription()), authors);
+  }
+
+  /**
+   * @return the escaped fields saved with the book or, if the book has not been migrated yet, the
+   *     newly escaped fields
+   */
+  public static EscapedBookFields escapedFields(Book book) {
+    EscapedBookFields escapedFields = book.getEscapedFields();
+    return escapedFields != null ? escapedFields : escape(book);
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.libraryserver.book.service;
+
+import com.example.libraryserver.book.data.Book;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/** Published by the {@link BookService} when a book has been created or updated. */
+public class BookSavedEvent {
+
+  private final UUID identifier;
+  private final String isbn;
+  private final String title;
+  private final String description;
+  private final Set<String> authors;
+
+  public BookSavedEvent(Book book) {
+    this.identifier = book.getIdentifier();
+    this.isbn = book.getIsbn();
+    this.title = book.getTitle();
+    this.description = book.getDescription();
+    this.authors = Collections.unmodifiableSet(new HashSet<>(book.getAuthors()));
+  }
+
+  public UUID getIdentifier() {
+    return identifier;
+  }
+
+  public String getIsbn() {
+    return isbn;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public Set<String> getAuthors() {
+    return authors;
+  }
+}
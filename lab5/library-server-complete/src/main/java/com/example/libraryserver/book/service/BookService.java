@@ -2,18 +2,36 @@ package com.example.libraryserver.book.service;
 
 import com.example.libraryserver.book.data.Book;
 import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.book.search.BookSearchIndexer;
+import com.example.libraryserver.book.search.BookSearchResult;
+import com.example.libraryserver.book.search.IsbnIndex;
+import com.example.libraryserver.book.search.IsbnIndexer;
 import com.example.libraryserver.security.AuthenticatedUser;
 import com.example.libraryserver.user.data.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.IdGenerator;
 
+import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @PreAuthorize("isAuthenticated()")
@@ -25,12 +43,26 @@ public class BookService {
   private final BookRepository bookRepository;
   private final UserRepository userRepository;
   private final IdGenerator idGenerator;
+  private final EntityManager entityManager;
+  private final BookSearchIndexer bookSearchIndexer;
+  private final IsbnIndexer isbnIndexer;
+  private final ApplicationEventPublisher eventPublisher;
 
   public BookService(
-      BookRepository bookRepository, UserRepository userRepository, IdGenerator idGenerator) {
+      BookRepository bookRepository,
+      UserRepository userRepository,
+      IdGenerator idGenerator,
+      EntityManager entityManager,
+      BookSearchIndexer bookSearchIndexer,
+      IsbnIndexer isbnIndexer,
+      ApplicationEventPublisher eventPublisher) {
     this.bookRepository = bookRepository;
     this.userRepository = userRepository;
     this.idGenerator = idGenerator;
+    this.entityManager = entityManager;
+    this.bookSearchIndexer = bookSearchIndexer;
+    this.isbnIndexer = isbnIndexer;
+    this.eventPublisher = eventPublisher;
   }
 
   public Optional<Book> findOneByIdentifier(UUID identifier) {
@@ -38,11 +70,93 @@ public class BookService {
     return bookRepository.findOneByIdentifier(identifier);
   }
 
+  /**
+   * Finds a book by its ISBN. The identifier of the book is resolved from the in-memory ISBN index
+   * and the book is then loaded through the natural id cache, the database is only queried for
+   * ISBNs missing in the index.
+   */
+  public Optional<Book> findOneByIsbn(String isbn) {
+    LOGGER.trace("find book for isbn {}", isbn);
+
+    if (IsbnIndex.toKey(isbn) < 0) {
+      return Optional.empty();
+    }
+    Optional<Book> book =
+        isbnIndexer
+            .findIdentifier(isbn)
+            .flatMap(bookRepository::findOneByIdentifier)
+            .filter(b -> isbn.equals(b.getIsbn()));
+    if (!book.isPresent()) {
+      book = bookRepository.findFirstByIsbnOrderByIdAsc(isbn);
+      book.ifPresent(b -> isbnIndexer.put(isbn, b.getIdentifier()));
+    }
+    return book;
+  }
+
   public List<Book> findAll() {
     LOGGER.trace("find all books");
     return bookRepository.findAll();
   }
 
+  /**
+   * Keyset pagination over the catalog ordered by book identifier. Only the books following the
+   * given identifier are read, so the query cost does not depend on the position in the catalog.
+   *
+   * @param after identifier of the last book of the previous slice or <code>null</code> for the
+   *     first slice
+   * @param size maximum number of books in the slice
+   * @return the slice of books
+   */
+  public Slice<Book> findAll(UUID after, int size) {
+    LOGGER.trace("find {} books after identifier {}", size, after);
+    Pageable pageable = PageRequest.of(0, size);
+    return after == null
+        ? bookRepository.findAllByOrderByIdentifierAsc(pageable)
+        : bookRepository.findAllByIdentifierGreaterThanOrderByIdentifierAsc(after, pageable);
+  }
+
+  /**
+   * Passes all books to the given consumer one at a time. Each book is detached after it has been
+   * consumed, so memory usage does not depend on the size of the catalog.
+   */
+  public void exportAll(Consumer<Book> bookConsumer) {
+    LOGGER.trace("export all books");
+
+    try (Stream<Book> books = bookRepository.streamAll()) {
+      books.forEach(
+          b -> {
+            bookConsumer.accept(b);
+            entityManager.detach(b);
+          });
+    }
+  }
+
+  /**
+   * Full-text search over title, authors and description of the books, best matches first.
+   *
+   * @param query the search terms
+   * @param page zero-based number of the page
+   * @param size maximum number of books on the page
+   * @return the page of matching books
+   */
+  public Page<Book> search(String query, int page, int size) {
+    LOGGER.trace("search books for '{}' (page {}, size {})", query, page, size);
+
+    BookSearchResult result = bookSearchIndexer.search(query, page, size);
+    if (result.getIdentifiers().isEmpty()) {
+      return new PageImpl<>(Collections.emptyList(), PageRequest.of(page, size), result.getTotal());
+    }
+    Map<UUID, Book> books =
+        bookRepository.findAllByIdentifierIn(result.getIdentifiers()).stream()
+            .collect(Collectors.toMap(Book::getIdentifier, Function.identity()));
+    List<Book> rankedBooks =
+        result.getIdentifiers().stream()
+            .map(books::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    return new PageImpl<>(rankedBooks, PageRequest.of(page, size), result.getTotal());
+  }
+
   @PreAuthorize("hasRole('LIBRARY_CURATOR')")
   @Transactional
   public Book save(Book book) {
@@ -51,7 +165,26 @@ public class BookService {
     if (book.getIdentifier() == null) {
       book.setIdentifier(idGenerator.generateId());
     }
-    return bookRepository.save(book);
+    book.setEscapedFields(BookOutputEscaping.escape(book));
+    Book savedBook = bookRepository.save(book);
+    eventPublisher.publishEvent(new BookSavedEvent(savedBook));
+    return savedBook;
+  }
+
+  @PreAuthorize("hasRole('LIBRARY_CURATOR')")
+  @Transactional
+  public List<Book> saveAll(List<Book> books) {
+    LOGGER.trace("Save {} books", books.size());
+
+    for (Book book : books) {
+      if (book.getIdentifier() == null) {
+        book.setIdentifier(idGenerator.generateId());
+      }
+      book.setEscapedFields(BookOutputEscaping.escape(book));
+    }
+    List<Book> savedBooks = bookRepository.saveAll(books);
+    savedBooks.forEach(b -> eventPublisher.publishEvent(new BookSavedEvent(b)));
+    return savedBooks;
   }
 
   @PreAuthorize("hasRole('LIBRARY_USER')")
@@ -63,25 +196,22 @@ public class BookService {
         bookIdentifier,
         userIdentifier);
 
-    return bookRepository
-        .findOneByIdentifier(bookIdentifier)
-        .filter(
-            b ->
-                b.getBorrowedByUser() == null
-                    && authenticatedUser != null
-                    && userIdentifier.equals(authenticatedUser.getIdentifier()))
+    if (authenticatedUser == null || !userIdentifier.equals(authenticatedUser.getIdentifier())) {
+      return Optional.empty();
+    }
+
+    return userRepository
+        .findOneByIdentifier(userIdentifier)
         .flatMap(
-            b ->
-                userRepository
-                    .findOneByIdentifier(userIdentifier)
-                    .map(
-                        u -> {
-                          b.setBorrowedByUser(u);
-                          Book borrowedBook = bookRepository.save(b);
-                          LOGGER.info("Borrowed book {} for user {}", borrowedBook, u);
-                          return Optional.of(borrowedBook);
-                        })
-                    .orElse(Optional.empty()));
+            u -> {
+              if (bookRepository.borrowForUser(bookIdentifier, u) == 0) {
+                return conflictIfExists(
+                    bookIdentifier, "Book " + bookIdentifier + " is already borrowed");
+              }
+              Optional<Book> borrowedBook = bookRepository.findOneByIdentifier(bookIdentifier);
+              borrowedBook.ifPresent(b -> LOGGER.info("Borrowed book {} for user {}", b, u));
+              return borrowedBook;
+            });
   }
 
   @PreAuthorize("hasRole('LIBRARY_USER')")
@@ -93,28 +223,29 @@ public class BookService {
         bookIdentifier,
         userIdentifier);
 
-    return bookRepository
-        .findOneByIdentifier(bookIdentifier)
-        .filter(
-            b ->
-                b.getBorrowedByUser() != null
-                    && authenticatedUser != null
-                    && b.getBorrowedByUser().getIdentifier().equals(userIdentifier)
-                    && b.getBorrowedByUser()
-                        .getIdentifier()
-                        .equals(authenticatedUser.getIdentifier()))
+    if (authenticatedUser == null || !userIdentifier.equals(authenticatedUser.getIdentifier())) {
+      return Optional.empty();
+    }
+
+    return userRepository
+        .findOneByIdentifier(userIdentifier)
         .flatMap(
-            b ->
-                userRepository
-                    .findOneByIdentifier(userIdentifier)
-                    .map(
-                        u -> {
-                          b.setBorrowedByUser(null);
-                          Book returnedBook = bookRepository.save(b);
-                          LOGGER.info("Returned book {} for user {}", returnedBook, u);
-                          return Optional.of(returnedBook);
-                        })
-                    .orElse(Optional.empty()));
+            u -> {
+              if (bookRepository.returnForUser(bookIdentifier, u) == 0) {
+                return conflictIfExists(
+                    bookIdentifier, "Book " + bookIdentifier + " is not borrowed by the user");
+              }
+              Optional<Book> returnedBook = bookRepository.findOneByIdentifier(bookIdentifier);
+              returnedBook.ifPresent(b -> LOGGER.info("Returned book {} for user {}", b, u));
+              return returnedBook;
+            });
+  }
+
+  private Optional<Book> conflictIfExists(UUID bookIdentifier, String message) {
+    if (bookRepository.existsByIdentifier(bookIdentifier)) {
+      throw new BorrowingConflictError(message);
+    }
+    return Optional.empty();
   }
 
   @PreAuthorize("hasRole('LIBRARY_CURATOR')")
@@ -127,6 +258,7 @@ public class BookService {
         .map(
             b -> {
               bookRepository.delete(b);
+              eventPublisher.publishEvent(new BookDeletedEvent(bookIdentifier));
               return true;
             })
         .orElse(false);
@@ -0,0 +1,10 @@
+package com.example.libraryserver.book.service;
+
+public class BorrowingConflictError extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public BorrowingConflictError(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.libraryserver.book.service;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Escapes the fields of books that have been saved without escaped fields, e.g. before they were
+ * introduced. Each chunk of books is migrated in its own transaction.
+ */
+@Component
+public class EscapedBookFieldsMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EscapedBookFieldsMigration.class);
+
+  private static final int CHUNK_SIZE = 500;
+
+  private final BookRepository bookRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public EscapedBookFieldsMigration(
+      BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+    this.bookRepository = bookRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrate() {
+    int migrated = 0;
+    int chunk;
+    do {
+      chunk =
+          transactionTemplate.execute(
+              status -> {
+                List<Book> books =
+                    bookRepository.findAllByEscapedFieldsTitleIsNull(
+                        PageRequest.of(0, CHUNK_SIZE));
+                books.forEach(b -> b.setEscapedFields(BookOutputEscaping.escape(b)));
+                return books.size();
+              });
+      migrated += chunk;
+    } while (chunk == CHUNK_SIZE);
+
+    if (migrated > 0) {
+      LOGGER.info("Escaped the fields of {} existing books", migrated);
+    }
+  }
+}
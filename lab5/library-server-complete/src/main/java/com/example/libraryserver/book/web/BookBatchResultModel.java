@@ -0,0 +1,89 @@
+package com.example.libraryserver.book.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a batch import. Created books are only counted, and at most a maximum number of
+ * rejections is listed, so the summary stays small for large imports.
+ */
+public class BookBatchResultModel {
+
+  private final int maximumRejections;
+
+  private int created;
+
+  private int rejected;
+
+  private String error;
+
+  private final List<Rejection> rejections = new ArrayList<>();
+
+  public BookBatchResultModel(int maximumRejections) {
+    this.maximumRejections = maximumRejections;
+  }
+
+  public void created(int count) {
+    created += count;
+  }
+
+  public void rejected(int index, List<String> errors) {
+    rejected++;
+    if (rejections.size() < maximumRejections) {
+      rejections.add(new Rejection(index, errors));
+    }
+  }
+
+  public int getCreated() {
+    return created;
+  }
+
+  public int getRejected() {
+    return rejected;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public List<Rejection> getRejections() {
+    return rejections;
+  }
+
+  @Override
+  public String toString() {
+    return "BookBatchResultModel{"
+        + "created="
+        + created
+        + ", rejected="
+        + rejected
+        + ", error='"
+        + error
+        + '\''
+        + '}';
+  }
+
+  public static class Rejection {
+
+    private final int index;
+
+    private final List<String> errors;
+
+    public Rejection(int index, List<String> errors) {
+      this.index = index;
+      this.errors = errors;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public List<String> getErrors() {
+      return errors;
+    }
+  }
+}
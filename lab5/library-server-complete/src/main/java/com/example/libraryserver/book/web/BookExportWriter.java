@@ -0,0 +1,122 @@
+package com.example.libraryserver.book.web;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.EscapedBookFields;
+import com.example.libraryserver.book.service.BookOutputEscaping;
+import com.example.libraryserver.book.service.BookService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the whole catalog row by row to an output stream, applying the same output escaping as
+ * {@link BookModelAssembler}.
+ */
+@Component
+public class BookExportWriter {
+
+  private static final String CSV_HEADER = "identifier,isbn,title,description,authors";
+  private static final char AUTHOR_SEPARATOR = ';';
+
+  private final BookService bookService;
+  private final ObjectMapper objectMapper;
+
+  public BookExportWriter(BookService bookService, ObjectMapper objectMapper) {
+    this.bookService = bookService;
+    this.objectMapper = objectMapper;
+  }
+
+  public void writeNdjson(OutputStream outputStream) throws IOException {
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      generator.setRootValueSeparator(null);
+      bookService.exportAll(
+          b -> {
+            try {
+              writeJson(generator, b);
+            } catch (IOException ex) {
+              throw new UncheckedIOException(ex);
+            }
+          });
+    }
+  }
+
+  public void writeCsv(OutputStream outputStream) throws IOException {
+    try (Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+      bookService.exportAll(
+          b -> {
+            try {
+              writeCsv(writer, b);
+            } catch (IOException ex) {
+              throw new UncheckedIOException(ex);
+            }
+          });
+    }
+  }
+
+  private void writeJson(JsonGenerator generator, Book book) throws IOException {
+    EscapedBookFields escapedFields = BookOutputEscaping.escapedFields(book);
+    generator.writeStartObject();
+    generator.writeStringField("identifier", book.getIdentifier().toString());
+    generator.writeStringField("isbn", escapedFields.getIsbn());
+    generator.writeStringField("title", escapedFields.getTitle());
+    generator.writeStringField("description", escapedFields.getDescription());
+    generator.writeArrayFieldStart("authors");
+    for (String author : escapedFields.getAuthors()) {
+      generator.writeString(author);
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private void writeCsv(Writer writer, Book book) throws IOException {
+    EscapedBookFields escapedFields = BookOutputEscaping.escapedFields(book);
+    writer.write(book.getIdentifier().toString());
+    writer.write(',');
+    writeCsvField(writer, escapedFields.getIsbn());
+    writer.write(',');
+    writeCsvField(writer, escapedFields.getTitle());
+    writer.write(',');
+    writeCsvField(writer, escapedFields.getDescription());
+    writer.write(',');
+    writeCsvField(writer, csvAuthors(escapedFields.getAuthors()));
+    writer.write('\n');
+  }
+
+  /**
+   * Joins the authors separated by semicolons. Authors containing a semicolon or a double quote are
+   * quoted as in RFC 4180, so the authors column can be split like a CSV record itself.
+   */
+  private static String csvAuthors(List<String> authors) {
+    StringBuilder value = new StringBuilder();
+    for (String author : authors) {
+      if (value.length() > 0) {
+        value.append(AUTHOR_SEPARATOR);
+      }
+      if (author.indexOf(AUTHOR_SEPARATOR) >= 0 || author.indexOf('"') >= 0) {
+        value.append('"').append(author.replace("\"", "\"\"")).append('"');
+      } else {
+        value.append(author);
+      }
+    }
+    return value.toString();
+  }
+
+  private void writeCsvField(Writer writer, String value) throws IOException {
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
@@ -1,14 +1,25 @@
 package com.example.libraryserver.book.web;
 
 import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.EscapedBookFields;
+import com.example.libraryserver.book.service.BookOutputEscaping;
+import com.example.libraryserver.common.web.IdentifierLinkTemplate;
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.web.UserModel;
 import com.example.libraryserver.user.web.UserModelAssembler;
-import org.owasp.encoder.Encode;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.mvc.RepresentationModelAssemblerSupport;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -16,32 +27,46 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Component
 public class BookModelAssembler extends RepresentationModelAssemblerSupport<Book, BookModel> {
 
-  public BookModelAssembler() {
+  private static final IdentifierLinkTemplate SELF_LINK =
+      new IdentifierLinkTemplate(
+          IanaLinkRelations.SELF, id -> methodOn(BookRestController.class).getSingleBook(id));
+  private static final IdentifierLinkTemplate BORROW_LINK =
+      new IdentifierLinkTemplate(
+          LinkRelation.of("borrow"),
+          id -> methodOn(BookRestController.class).borrowBook(id, null, null));
+  private static final IdentifierLinkTemplate RETURN_LINK =
+      new IdentifierLinkTemplate(
+          LinkRelation.of("return"),
+          id -> methodOn(BookRestController.class).returnBook(id, null, null));
+
+  private final UserModelAssembler userModelAssembler;
+
+  public BookModelAssembler(UserModelAssembler userModelAssembler) {
     super(BookRestController.class, BookModel.class);
+    this.userModelAssembler = userModelAssembler;
   }
 
   @Override
   public BookModel toModel(Book book) {
+    return toModel(book, new HashMap<>(2));
+  }
+
+  /**
+   * @param borrowers models of the borrowers already assembled, so each borrower is assembled only
+   *     once for a collection of books
+   */
+  private BookModel toModel(Book book, Map<UUID, UserModel> borrowers) {
+    User borrower = book.getBorrowedByUser();
     BookModel bookModel =
-        outputEscaping(
-            new BookModel(
-                book.getIdentifier(),
-                book.getIsbn(),
-                book.getTitle(),
-                book.getDescription(),
-                book.getAuthors(),
-                book.getBorrowedByUser() != null
-                    ? new UserModelAssembler().toModel(book.getBorrowedByUser())
-                    : null));
-    bookModel.add(
-        linkTo(methodOn(BookRestController.class).getSingleBook(bookModel.getIdentifier()))
-            .withSelfRel());
-    bookModel.add(
-        linkTo(methodOn(BookRestController.class).borrowBook(bookModel.getIdentifier(), null, null))
-            .withRel("borrow"));
-    bookModel.add(
-        linkTo(methodOn(BookRestController.class).returnBook(bookModel.getIdentifier(), null, null))
-            .withRel("return"));
+        outputEscaped(
+            book,
+            borrower != null
+                ? borrowers.computeIfAbsent(
+                    borrower.getIdentifier(), id -> userModelAssembler.toModel(borrower))
+                : null);
+    bookModel.add(SELF_LINK.expand(bookModel.getIdentifier()));
+    bookModel.add(BORROW_LINK.expand(bookModel.getIdentifier()));
+    bookModel.add(RETURN_LINK.expand(bookModel.getIdentifier()));
 
     return bookModel;
   }
@@ -50,24 +75,54 @@ public class BookModelAssembler extends RepresentationModelAssemblerSupport<Book
   public CollectionModel<BookModel> toCollectionModel(Iterable<? extends Book> entities) {
 
     List<BookModel> result = new ArrayList<>();
+    Map<UUID, UserModel> borrowers = new HashMap<>();
 
     for (Book entity : entities) {
-      result.add(toModel(entity));
+      result.add(toModel(entity, borrowers));
     }
 
     return new BookModelList(result);
   }
 
-  private BookModel outputEscaping(BookModel input) {
-    BookModel output = new BookModel();
-    output.setDescription(Encode.forJavaScript(Encode.forHtml(input.getDescription())));
-    output.setTitle(Encode.forJavaScript(Encode.forHtml(input.getTitle())));
-    output.setIsbn(Encode.forJavaScript(Encode.forHtml(input.getIsbn())));
-    output.setBorrowedByUser(input.getBorrowedByUser());
-    output.setIdentifier(input.getIdentifier());
-    for (String author : input.getAuthors()) {
-      output.getAuthors().add(Encode.forJavaScript(Encode.forHtml(author)));
+  public CollectionModel<BookModel> toSliceModel(Slice<Book> books) {
+    CollectionModel<BookModel> bookModelList = toCollectionModel(books.getContent());
+    if (books.hasNext()) {
+      Book lastBook = books.getContent().get(books.getNumberOfElements() - 1);
+      bookModelList.add(
+          linkTo(
+                  methodOn(BookRestController.class)
+                      .listAllBooks(lastBook.getIdentifier(), books.getSize()))
+              .withRel(IanaLinkRelations.NEXT));
     }
+    return bookModelList;
+  }
+
+  public CollectionModel<BookModel> toSearchModel(String query, Page<Book> books) {
+    CollectionModel<BookModel> bookModelList = toCollectionModel(books.getContent());
+    bookModelList.add(
+        linkTo(
+                methodOn(BookRestController.class)
+                    .searchBooks(query, books.getNumber(), books.getSize()))
+            .withSelfRel());
+    if (books.hasNext()) {
+      bookModelList.add(
+          linkTo(
+                  methodOn(BookRestController.class)
+                      .searchBooks(query, books.getNumber() + 1, books.getSize()))
+              .withRel(IanaLinkRelations.NEXT));
+    }
+    return bookModelList;
+  }
+
+  private BookModel outputEscaped(Book book, UserModel borrower) {
+    EscapedBookFields escapedFields = BookOutputEscaping.escapedFields(book);
+    BookModel output = new BookModel();
+    output.setDescription(escapedFields.getDescription());
+    output.setTitle(escapedFields.getTitle());
+    output.setIsbn(escapedFields.getIsbn());
+    output.setBorrowedByUser(borrower);
+    output.setIdentifier(book.getIdentifier());
+    output.getAuthors().addAll(escapedFields.getAuthors());
 
     return output;
   }
@@ -2,8 +2,17 @@ package com.example.libraryserver.book.web;
 
 import com.example.libraryserver.book.data.Book;
 import com.example.libraryserver.book.service.BookService;
+import com.example.libraryserver.common.web.HtmlJavaScriptEncoder;
 import com.example.libraryserver.security.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -14,13 +23,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 
@@ -29,12 +49,35 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 @Validated
 public class BookRestController {
 
+  static final int DEFAULT_PAGE_SIZE = 20;
+  static final int MAX_PAGE_SIZE = 100;
+  static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BookRestController.class);
+
   private final BookService bookService;
   private final BookModelAssembler bookModelAssembler;
+  private final BookExportWriter bookExportWriter;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final int batchChunkSize;
+  private final int batchMaximumRejections;
 
-  public BookRestController(BookService bookService, BookModelAssembler bookModelAssembler) {
+  public BookRestController(
+      BookService bookService,
+      BookModelAssembler bookModelAssembler,
+      BookExportWriter bookExportWriter,
+      ObjectMapper objectMapper,
+      Validator validator,
+      @Value("${library.batch.chunk-size:500}") int batchChunkSize,
+      @Value("${library.batch.maximum-rejections:1000}") int batchMaximumRejections) {
     this.bookService = bookService;
     this.bookModelAssembler = bookModelAssembler;
+    this.bookExportWriter = bookExportWriter;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.batchChunkSize = batchChunkSize;
+    this.batchMaximumRejections = batchMaximumRejections;
   }
 
   @PostMapping
@@ -56,6 +99,77 @@ public class BookRestController {
     return ResponseEntity.created(uri).body(bookModelAssembler.toModel(book));
   }
 
+  @PostMapping(
+      path = "/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<BookBatchResultModel> createBooks(HttpServletRequest request)
+      throws IOException {
+    BookBatchResultModel result = new BookBatchResultModel(batchMaximumRejections);
+    List<Book> chunk = new ArrayList<>(batchChunkSize);
+    int index = 0;
+
+    try (MappingIterator<BookModel> bookModels =
+        objectMapper.readerFor(BookModel.class).readValues(request.getInputStream())) {
+      while (bookModels.hasNextValue()) {
+        BookModel bookModel;
+        try {
+          bookModel = bookModels.nextValue();
+        } catch (JsonMappingException ex) {
+          // the iterator skips the rest of the book, so the import continues with the next one
+          result.rejected(index++, Collections.singletonList(malformedMessage(ex)));
+          continue;
+        }
+        Set<ConstraintViolation<BookModel>> violations = validator.validate(bookModel);
+        if (violations.isEmpty()) {
+          chunk.add(
+              new Book(
+                  bookModel.getIsbn(),
+                  bookModel.getTitle(),
+                  bookModel.getDescription(),
+                  bookModel.getAuthors()));
+          if (chunk.size() >= batchChunkSize) {
+            saveChunk(chunk, result);
+          }
+        } else {
+          result.rejected(
+              index,
+              violations.stream()
+                  .map(
+                      v -> HtmlJavaScriptEncoder.encode(v.getPropertyPath() + " " + v.getMessage()))
+                  .collect(Collectors.toList()));
+        }
+        index++;
+      }
+    } catch (JsonProcessingException ex) {
+      LOGGER.warn("Unreadable batch at index {}: {}", index, ex.getOriginalMessage());
+      result.setError("Unreadable JSON at index " + index + ", the following books were skipped");
+    }
+    saveChunk(chunk, result);
+
+    LOGGER.info("Imported books in batch: {}", result);
+    return result.getError() == null
+        ? ResponseEntity.ok(result)
+        : ResponseEntity.badRequest().body(result);
+  }
+
+  private static String malformedMessage(JsonMappingException ex) {
+    String field =
+        ex.getPath().stream()
+            .map(JsonMappingException.Reference::getFieldName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining("."));
+    return HtmlJavaScriptEncoder.encode(
+        field.isEmpty() ? "book is malformed" : field + " is malformed");
+  }
+
+  private void saveChunk(List<Book> chunk, BookBatchResultModel result) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    result.created(bookService.saveAll(chunk).size());
+    chunk.clear();
+  }
+
   @PutMapping("/{bookIdentifier}")
   public ResponseEntity<BookModel> updateBook(
       @PathVariable("bookIdentifier") UUID bookIdentifier,
@@ -99,14 +213,58 @@ public class BookRestController {
   }
 
   @GetMapping
-  public ResponseEntity<CollectionModel<BookModel>> listAllBooks() {
+  public ResponseEntity<CollectionModel<BookModel>> listAllBooks(
+      @RequestParam(name = "after", required = false) UUID after,
+      @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
     CollectionModel<BookModel> bookModel =
-        bookModelAssembler.toCollectionModel(bookService.findAll());
+        bookModelAssembler.toSliceModel(
+            bookService.findAll(after, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
     bookModel.add(linkTo(BookRestController.class).withSelfRel());
 
     return ResponseEntity.ok(bookModel);
   }
 
+  @GetMapping("/export")
+  public void exportBooks(
+      @RequestParam(name = "format", defaultValue = "ndjson") String format,
+      HttpServletResponse response)
+      throws IOException {
+    if ("ndjson".equals(format)) {
+      response.setContentType(APPLICATION_NDJSON_VALUE);
+      response.setCharacterEncoding("UTF-8");
+      bookExportWriter.writeNdjson(response.getOutputStream());
+    } else if ("csv".equals(format)) {
+      response.setContentType("text/csv");
+      response.setCharacterEncoding("UTF-8");
+      response.setHeader("Content-Disposition", "attachment; filename=\"books.csv\"");
+      bookExportWriter.writeCsv(response.getOutputStream());
+    } else {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format");
+    }
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<CollectionModel<BookModel>> searchBooks(
+      @RequestParam("q") String query,
+      @RequestParam(name = "page", defaultValue = "0") int page,
+      @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+    CollectionModel<BookModel> bookModel =
+        bookModelAssembler.toSearchModel(
+            query,
+            bookService.search(
+                query, Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+
+    return ResponseEntity.ok(bookModel);
+  }
+
+  @GetMapping("/isbn/{isbn}")
+  public ResponseEntity<BookModel> getSingleBookByIsbn(@PathVariable("isbn") String isbn) {
+    return bookService
+        .findOneByIsbn(isbn)
+        .map(b -> ResponseEntity.ok(bookModelAssembler.toModel(b)))
+        .orElse(ResponseEntity.notFound().build());
+  }
+
   @GetMapping("/{bookIdentifier}")
   public ResponseEntity<BookModel> getSingleBook(
       @PathVariable("bookIdentifier") UUID bookIdentifier) {
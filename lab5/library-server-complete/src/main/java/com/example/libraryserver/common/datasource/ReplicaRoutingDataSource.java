@@ -0,0 +1,154 @@
+package com.example.libraryserver.common.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes connections of read-only transactions to a replica and all other connections to the
+ * primary database. It has to be wrapped into a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the connection is only
+ * fetched after the transaction has been marked read-only.
+ *
+ * <p>The replica applies changes with a delay of up to <code>maxLag</code>. To let users read their
+ * own writes, the reads of a user who committed a write go to the primary for this duration. If a
+ * lag query is configured, all reads go to the primary while the replica lags further behind.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private static final int MAX_STICKY_USERS = 10_000;
+
+  enum Target {
+    PRIMARY,
+    REPLICA
+  }
+
+  private final DataSource replica;
+  private final long maxLagNanos;
+  private final String lagQuery;
+  private final long lagCheckIntervalNanos;
+
+  private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+  private final AtomicLong nextLagCheck = new AtomicLong(System.nanoTime());
+  private volatile boolean replicaLagging;
+
+  /**
+   * @param lagQuery query returning the replication lag in seconds as single value or <code>null
+   *     </code> to not check the replica
+   */
+  public ReplicaRoutingDataSource(
+      DataSource primary,
+      DataSource replica,
+      Duration maxLag,
+      String lagQuery,
+      Duration lagCheckInterval) {
+    this.replica = replica;
+    this.maxLagNanos = maxLag.toNanos();
+    this.lagQuery = lagQuery;
+    this.lagCheckIntervalNanos = lagCheckInterval.toNanos();
+
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(Target.PRIMARY, primary);
+    targetDataSources.put(Target.REPLICA, replica);
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      stickToPrimaryAfterCommit();
+      return Target.PRIMARY;
+    }
+    if (isStickyForCurrentUser() || isReplicaLagging()) {
+      return Target.PRIMARY;
+    }
+    return Target.REPLICA;
+  }
+
+  private void stickToPrimaryAfterCommit() {
+    String user = currentUser();
+    if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCommit() {
+            long now = System.nanoTime();
+            if (stickyUntil.size() >= MAX_STICKY_USERS) {
+              stickyUntil.values().removeIf(until -> until - now < 0);
+            }
+            stickyUntil.put(user, now + maxLagNanos);
+          }
+        });
+  }
+
+  private boolean isStickyForCurrentUser() {
+    String user = currentUser();
+    if (user == null) {
+      return false;
+    }
+    Long until = stickyUntil.get(user);
+    if (until == null) {
+      return false;
+    }
+    if (until - System.nanoTime() < 0) {
+      stickyUntil.remove(user, until);
+      return false;
+    }
+    return true;
+  }
+
+  private boolean isReplicaLagging() {
+    if (lagQuery == null) {
+      return false;
+    }
+    long now = System.nanoTime();
+    long nextCheck = nextLagCheck.get();
+    if (now - nextCheck >= 0
+        && nextLagCheck.compareAndSet(nextCheck, now + lagCheckIntervalNanos)) {
+      replicaLagging = queryReplicaLagNanos() > maxLagNanos;
+    }
+    return replicaLagging;
+  }
+
+  private long queryReplicaLagNanos() {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(lagQuery)) {
+      long lag = resultSet.next() ? (long) (resultSet.getDouble(1) * 1_000_000_000L) : 0;
+      LOGGER.debug("Replication lag is {} ms", lag / 1_000_000);
+      return lag;
+    } catch (SQLException ex) {
+      LOGGER.warn("Checking the replication lag failed, reading from primary: {}", ex.getMessage());
+      return Long.MAX_VALUE;
+    }
+  }
+
+  private static String currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication == null || authentication instanceof AnonymousAuthenticationToken
+        ? null
+        : authentication.getName();
+  }
+}
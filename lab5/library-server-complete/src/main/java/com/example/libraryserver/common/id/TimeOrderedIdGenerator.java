@@ -0,0 +1,38 @@
+package com.example.libraryserver.common.id;
+
+import org.springframework.util.IdGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time ordered version 7 UUIDs: a 48 bit unix timestamp in milliseconds, a 12 bit counter
+ * and 62 random bits. Timestamp and counter are shared by all threads, so identifiers are ordered
+ * by creation even within the same millisecond. If the counter overflows, the timestamp is
+ * advanced by one millisecond. Each thread uses its own {@link SecureRandom}, so generation does
+ * not contend on a shared one.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+  private static final int COUNTER_BITS = 12;
+
+  private static final ThreadLocal<SecureRandom> RANDOM =
+      ThreadLocal.withInitial(SecureRandom::new);
+
+  /** Timestamp of the last identifier shifted left by the counter bits, plus the counter. */
+  private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+  @Override
+  public UUID generateId() {
+    long timestampAndCounter =
+        lastTimestampAndCounter.accumulateAndGet(
+            System.currentTimeMillis() << COUNTER_BITS, (last, now) -> Math.max(last + 1, now));
+    long timestamp = timestampAndCounter >>> COUNTER_BITS;
+    long counter = timestampAndCounter & ((1L << COUNTER_BITS) - 1);
+
+    long mostSigBits = (timestamp << 16) | 0x7000L | counter;
+    long leastSigBits = (RANDOM.get().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+}
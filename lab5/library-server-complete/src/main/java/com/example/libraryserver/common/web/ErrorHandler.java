@@ -1,9 +1,11 @@
 package com.example.libraryserver.common.web;
 
+import com.example.libraryserver.book.service.BorrowingConflictError;
 import com.example.libraryserver.user.service.InvalidPasswordError;
 import org.owasp.encoder.Encode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -32,6 +34,19 @@ public class ErrorHandler {
         .body(Encode.forJavaScriptSource(Encode.forHtmlContent(ex.getMessage())));
   }
 
+  @ExceptionHandler(BorrowingConflictError.class)
+  public ResponseEntity<String> handle(BorrowingConflictError ex) {
+    LOGGER.warn(ex.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(Encode.forJavaScriptSource(Encode.forHtmlContent(ex.getMessage())));
+  }
+
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  public ResponseEntity<String> handle(ConcurrencyFailureException ex) {
+    LOGGER.warn(ex.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT).body("Concurrent modification");
+  }
+
   @ExceptionHandler(RuntimeException.class)
   public ResponseEntity<String> handle(RuntimeException ex) {
     LOGGER.error(ex.getMessage(), ex);
@@ -0,0 +1,105 @@
+package com.example.libraryserver.common.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes a HAL collection to the response one element at a time. The output has the same shape as
+ * a {@link org.springframework.hateoas.CollectionModel} exposing its elements as a named property,
+ * but only the element currently written and its model are held in memory.
+ */
+@Component
+public class HalCollectionWriter {
+
+  private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+  private volatile ObjectMapper objectMapper;
+
+  public HalCollectionWriter(ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+    this.handlerAdapter = handlerAdapter;
+  }
+
+  /**
+   * @param response the response to write to
+   * @param property name of the property holding the elements
+   * @param elements passes each element to the given consumer
+   * @param assembler converts an element to its model
+   * @param links the links of the collection
+   */
+  public <T> void write(
+      HttpServletResponse response,
+      String property,
+      Consumer<Consumer<T>> elements,
+      Function<? super T, ? extends RepresentationModel<?>> assembler,
+      Link... links)
+      throws IOException {
+    ObjectMapper mapper = halObjectMapper();
+    ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    response.setContentType(MediaTypes.HAL_JSON_VALUE);
+    response.setCharacterEncoding("UTF-8");
+
+    // not closed on failure, so nothing buffered is flushed before the error response
+    JsonGenerator generator = writer.getFactory().createGenerator(response.getOutputStream());
+    generator.writeStartObject();
+    generator.writeArrayFieldStart(property);
+    try {
+      elements.accept(e -> writeValue(writer, generator, assembler.apply(e)));
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    generator.writeEndArray();
+
+    RepresentationModel<?> collectionModel = new RepresentationModel<>();
+    collectionModel.add(links);
+    JsonNode linksNode = mapper.valueToTree(collectionModel);
+    Iterator<Map.Entry<String, JsonNode>> fields = linksNode.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      generator.writeFieldName(field.getKey());
+      writer.writeValue(generator, field.getValue());
+    }
+    generator.writeEndObject();
+    generator.close();
+  }
+
+  private static void writeValue(ObjectWriter writer, JsonGenerator generator, Object value) {
+    try {
+      writer.writeValue(generator, value);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /** Uses the object mapper of the HAL message converter, which knows how to render links. */
+  private ObjectMapper halObjectMapper() {
+    ObjectMapper mapper = objectMapper;
+    if (mapper == null) {
+      mapper =
+          handlerAdapter.getObject().getMessageConverters().stream()
+              .filter(c -> c instanceof AbstractJackson2HttpMessageConverter)
+              .filter(c -> c.getSupportedMediaTypes().contains(MediaTypes.HAL_JSON))
+              .findFirst()
+              .map(c -> ((AbstractJackson2HttpMessageConverter) c).getObjectMapper())
+              .orElseThrow(() -> new IllegalStateException("No HAL message converter found"));
+      objectMapper = mapper;
+    }
+    return mapper;
+  }
+}
@@ -0,0 +1,102 @@
+package com.example.libraryserver.common.web;
+
+import org.owasp.encoder.Encode;
+
+/**
+ * Encodes for HTML and then for JavaScript in a single pass, with the same result as <code>
+ * Encode.forJavaScript(Encode.forHtml(input))</code> but without the intermediate String.
+ *
+ * <p>Only printable characters are encoded here. Input containing control characters, unpaired
+ * surrogates, line separators or non-characters is rare and delegated to the OWASP encoder.
+ */
+public final class HtmlJavaScriptEncoder {
+
+  /** Maximum number of characters a single input character is encoded to. */
+  public static final int MAX_EXPANSION = 8;
+
+  private static final char[][] REPLACEMENTS = new char[128][];
+
+  static {
+    REPLACEMENTS['&'] = "\\x26amp;".toCharArray();
+    REPLACEMENTS['<'] = "\\x26lt;".toCharArray();
+    REPLACEMENTS['>'] = "\\x26gt;".toCharArray();
+    REPLACEMENTS['"'] = "\\x26#34;".toCharArray();
+    REPLACEMENTS['\''] = "\\x26#39;".toCharArray();
+    REPLACEMENTS['/'] = "\\/".toCharArray();
+    REPLACEMENTS['-'] = "\\-".toCharArray();
+    REPLACEMENTS['\\'] = "\\\\".toCharArray();
+  }
+
+  private HtmlJavaScriptEncoder() {}
+
+  /** @return the encoded input, the input itself if nothing needs to be encoded */
+  public static String encode(String input) {
+    if (input == null) {
+      return fallback(null);
+    }
+    int length = input.length();
+    int i = 0;
+    while (i < length) {
+      char ch = input.charAt(i);
+      if (!isPrintable(ch)) {
+        return fallback(input);
+      }
+      if (ch < 128 && REPLACEMENTS[ch] != null) {
+        break;
+      }
+      i++;
+    }
+    if (i == length) {
+      return input;
+    }
+
+    char[] output = new char[length * MAX_EXPANSION];
+    input.getChars(0, i, output, 0);
+    int encodedLength = encode(input, i, output, i);
+    return encodedLength < 0 ? fallback(input) : new String(output, 0, encodedLength);
+  }
+
+  /**
+   * Encodes the input into the given buffer.
+   *
+   * @param output buffer with room for at least {@link #MAX_EXPANSION} characters per input
+   *     character
+   * @return the number of encoded characters or <code>-1</code> if the input has to be encoded
+   *     with {@link #encode(String)}
+   */
+  public static int encode(String input, char[] output) {
+    return input == null ? -1 : encode(input, 0, output, 0);
+  }
+
+  private static int encode(String input, int start, char[] output, int offset) {
+    int position = offset;
+    for (int i = start; i < input.length(); i++) {
+      char ch = input.charAt(i);
+      if (!isPrintable(ch)) {
+        return -1;
+      }
+      char[] replacement = ch < 128 ? REPLACEMENTS[ch] : null;
+      if (replacement == null) {
+        output[position++] = ch;
+      } else {
+        System.arraycopy(replacement, 0, output, position, replacement.length);
+        position += replacement.length;
+      }
+    }
+    return position;
+  }
+
+  private static boolean isPrintable(char ch) {
+    if (ch < 0xa0) {
+      return ch >= 0x20 && ch < 0x7f;
+    }
+    if (ch < Character.MIN_SURROGATE) {
+      return ch != 0x2028 && ch != 0x2029;
+    }
+    return ch > Character.MAX_SURROGATE && ch <= 0xfffd && (ch < 0xfdd0 || ch > 0xfdef);
+  }
+
+  private static String fallback(String input) {
+    return Encode.forJavaScript(Encode.forHtml(input));
+  }
+}
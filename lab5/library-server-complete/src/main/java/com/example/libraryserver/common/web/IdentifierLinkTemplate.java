@@ -0,0 +1,68 @@
+package com.example.libraryserver.common.web;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * Link to a controller method taking a resource identifier. Building links with {@link
+ * org.springframework.hateoas.server.mvc.WebMvcLinkBuilder#methodOn(Class, Object...)} creates an
+ * invocation recording proxy and resolves the request mapping for each link. Here the link is built
+ * only once per request for a placeholder identifier and then expanded for each identifier.
+ *
+ * <p>Expanded links carry href and relation only; the affordances {@code linkTo} derives from the
+ * controller method are not copied, so this is not suitable for HAL-FORMS responses.
+ */
+public class IdentifierLinkTemplate {
+
+  private static final UUID PLACEHOLDER = new UUID(0L, 0L);
+
+  private final LinkRelation relation;
+  private final Function<UUID, Object> invocation;
+  private final String attributeName;
+
+  /**
+   * @param relation the relation of the link
+   * @param invocation invocation of the controller method on a {@link
+   *     org.springframework.hateoas.server.mvc.WebMvcLinkBuilder#methodOn(Class, Object...)} proxy
+   *     for the given identifier
+   */
+  public IdentifierLinkTemplate(LinkRelation relation, Function<UUID, Object> invocation) {
+    this.relation = relation;
+    this.invocation = invocation;
+    this.attributeName =
+        IdentifierLinkTemplate.class.getName() + "." + System.identityHashCode(this);
+  }
+
+  public Link expand(UUID identifier) {
+    String[] href = href();
+    return new Link(href[0] + identifier + href[1], relation);
+  }
+
+  private String[] href() {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes == null) {
+      return resolveHref();
+    }
+    String[] href =
+        (String[]) requestAttributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+    if (href == null) {
+      href = resolveHref();
+      requestAttributes.setAttribute(attributeName, href, RequestAttributes.SCOPE_REQUEST);
+    }
+    return href;
+  }
+
+  private String[] resolveHref() {
+    String href = linkTo(invocation.apply(PLACEHOLDER)).withRel(relation).getHref();
+    String placeholder = PLACEHOLDER.toString();
+    int index = href.indexOf(placeholder);
+    return new String[] {href.substring(0, index), href.substring(index + placeholder.length())};
+  }
+}
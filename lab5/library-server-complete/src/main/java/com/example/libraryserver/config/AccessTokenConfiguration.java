@@ -0,0 +1,68 @@
+package com.example.libraryserver.config;
+
+import com.example.libraryserver.security.token.AccessTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Signs access tokens with a key from a PKCS12 key store, by default the server's TLS key store.
+ * Keys listed in <code>library.security.token.verification-key-aliases</code> are still accepted
+ * for tokens issued before a key rotation.
+ */
+@Configuration
+public class AccessTokenConfiguration {
+
+  @Bean
+  public AccessTokenCodec accessTokenCodec(
+      ResourceLoader resourceLoader,
+      @Value("${library.security.token.key-store}") String keyStoreLocation,
+      @Value("${library.security.token.key-store-password}") String keyStorePassword,
+      @Value("${library.security.token.key-password}") String keyPassword,
+      @Value("${library.security.token.signing-key-alias}") String signingKeyAlias,
+      @Value("${library.security.token.verification-key-aliases:}") String[] verificationKeyAliases,
+      @Value("${library.security.token.ttl:15m}") Duration timeToLive)
+      throws GeneralSecurityException, IOException {
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream inputStream =
+        resourceLoader.getResource(keyStoreLocation).getInputStream()) {
+      keyStore.load(inputStream, keyStorePassword.toCharArray());
+    }
+
+    PrivateKey signingKey =
+        (PrivateKey) keyStore.getKey(signingKeyAlias, keyPassword.toCharArray());
+    if (signingKey == null) {
+      throw new IllegalStateException("No key found for alias " + signingKeyAlias);
+    }
+    Map<String, PublicKey> verificationKeys = new HashMap<>();
+    verificationKeys.put(signingKeyAlias, publicKey(keyStore, signingKeyAlias));
+    for (String alias : verificationKeyAliases) {
+      verificationKeys.put(alias, publicKey(keyStore, alias));
+    }
+
+    return new AccessTokenCodec(
+        signingKeyAlias, signingKey, verificationKeys, timeToLive, Clock.systemUTC());
+  }
+
+  private static PublicKey publicKey(KeyStore keyStore, String alias)
+      throws GeneralSecurityException {
+    Certificate certificate = keyStore.getCertificate(alias);
+    if (certificate == null) {
+      throw new IllegalStateException("No certificate found for alias " + alias);
+    }
+    return certificate.getPublicKey();
+  }
+}
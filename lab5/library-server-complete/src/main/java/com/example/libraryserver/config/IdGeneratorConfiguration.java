@@ -1,5 +1,7 @@
 package com.example.libraryserver.config;
 
+import com.example.libraryserver.common.id.TimeOrderedIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.IdGenerator;
@@ -9,7 +11,17 @@ import org.springframework.util.JdkIdGenerator;
 public class IdGeneratorConfiguration {
 
   @Bean
-  public IdGenerator idGenerator() {
-    return new JdkIdGenerator();
+  public IdGenerator idGenerator(@Value("${library.id-generator:random}") String idGenerator) {
+    switch (idGenerator) {
+      case "random":
+        return new JdkIdGenerator();
+      case "time-ordered":
+        return new TimeOrderedIdGenerator();
+      default:
+        throw new IllegalStateException(
+            "Unknown library.id-generator '"
+                + idGenerator
+                + "', expected one of 'random' or 'time-ordered'");
+    }
   }
 }
@@ -0,0 +1,22 @@
+package com.example.libraryserver.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the Afterburner module with the auto-configured ObjectMapper, if <code>
+ * library.jackson.afterburner</code> is enabled. It replaces the reflective property access of the
+ * representation models with generated bytecode, custom serializers are not affected.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.jackson.afterburner", havingValue = "true")
+public class JacksonConfiguration {
+
+  @Bean
+  public Module afterburnerModule() {
+    return new AfterburnerModule();
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.libraryserver.config;
+
+import com.example.libraryserver.security.method.RoleCheckAttributeFactory;
+import com.example.libraryserver.security.method.RoleCheckPreInvocationAdvice;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.expression.method.ExpressionBasedAnnotationAttributeFactory;
+import org.springframework.security.access.expression.method.ExpressionBasedPreInvocationAdvice;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PreInvocationAuthorizationAdviceVoter;
+import org.springframework.security.access.prepost.PrePostAnnotationSecurityMetadataSource;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.access.vote.AuthenticatedVoter;
+import org.springframework.security.access.vote.RoleVoter;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Method security with <code>@PreAuthorize</code>, where simple role expressions are checked
+ * directly instead of being evaluated by SpEL on each call.
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfiguration extends GlobalMethodSecurityConfiguration {
+
+  /** Takes precedence over the default source of the pre/post annotations. */
+  @Override
+  protected MethodSecurityMetadataSource customMethodSecurityMetadataSource() {
+    return new PrePostAnnotationSecurityMetadataSource(
+        new RoleCheckAttributeFactory(
+            new ExpressionBasedAnnotationAttributeFactory(getExpressionHandler())));
+  }
+
+  @Override
+  protected AccessDecisionManager accessDecisionManager() {
+    ExpressionBasedPreInvocationAdvice expressionAdvice = new ExpressionBasedPreInvocationAdvice();
+    expressionAdvice.setExpressionHandler(getExpressionHandler());
+
+    List<AccessDecisionVoter<?>> decisionVoters = new ArrayList<>();
+    decisionVoters.add(
+        new PreInvocationAuthorizationAdviceVoter(
+            new RoleCheckPreInvocationAdvice(expressionAdvice)));
+    decisionVoters.add(new RoleVoter());
+    decisionVoters.add(new AuthenticatedVoter());
+    return new AffirmativeBased(decisionVoters);
+  }
+}
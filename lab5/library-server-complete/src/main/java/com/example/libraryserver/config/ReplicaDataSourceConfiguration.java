@@ -0,0 +1,66 @@
+package com.example.libraryserver.config;
+
+import com.example.libraryserver.common.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Sends read-only transactions to a read replica, if <code>library.datasource.replica.url</code>
+ * is set. The primary database is configured with the usual <code>spring.datasource</code>
+ * properties.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "library.datasource.replica", name = "url")
+public class ReplicaDataSourceConfiguration {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  @ConfigurationProperties("library.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Value("${library.datasource.replica.url}") String url,
+      @Value("${library.datasource.replica.username:sa}") String username,
+      @Value("${library.datasource.replica.password:}") String password) {
+    HikariDataSource dataSource =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+    dataSource.setPoolName("replica");
+    return dataSource;
+  }
+
+  @Primary
+  @Bean
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${library.datasource.replica.max-lag:1s}") Duration maxLag,
+      @Value("${library.datasource.replica.lag-query:#{null}}") String lagQuery,
+      @Value("${library.datasource.replica.lag-check-interval:5s}") Duration lagCheckInterval) {
+    return new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(
+            primaryDataSource, replicaDataSource, maxLag, lagQuery, lagCheckInterval));
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.libraryserver.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hands the JCache manager to Hibernate, if the second level cache is enabled (profile <code>cache
+ * </code>), and exposes hits, misses, puts and evictions of each cache region as <code>cache.*
+ * </code> metrics.
+ */
+@Configuration
+@ConditionalOnProperty(
+    name = "spring.jpa.properties.hibernate.cache.use_second_level_cache",
+    havingValue = "true")
+public class SecondLevelCacheConfiguration {
+
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager() {
+    return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(
+      CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+
+  /** Depends on the entity manager factory, as the regions exist once Hibernate has started. */
+  @Bean
+  public MeterBinder hibernateCacheMetrics(
+      CacheManager hibernateCacheManager, EntityManagerFactory entityManagerFactory) {
+    return registry -> {
+      for (String cacheName : hibernateCacheManager.getCacheNames()) {
+        JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(cacheName));
+      }
+    };
+  }
+}
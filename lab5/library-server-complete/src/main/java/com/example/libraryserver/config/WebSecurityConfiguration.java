@@ -1,23 +1,49 @@
 package com.example.libraryserver.config;
 
+import com.example.libraryserver.security.BCryptCalibration;
+import com.example.libraryserver.security.BulkheadPasswordEncoder;
+import com.example.libraryserver.security.CachingAuthenticationProvider;
+import com.example.libraryserver.security.CaffeineUserCache;
+import com.example.libraryserver.security.LibraryUserDetailsService;
+import com.example.libraryserver.security.OverloadAwareAuthenticationEntryPoint;
+import com.example.libraryserver.security.X509PrincipalCache;
+import com.example.libraryserver.security.token.AccessTokenAuthenticationFilter;
+import com.example.libraryserver.security.token.AccessTokenCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.CachingUserDetailsService;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.preauth.x509.SubjectDnX509PrincipalExtractor;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.springframework.http.HttpMethod.DELETE;
@@ -26,14 +52,69 @@ import static org.springframework.http.HttpMethod.PUT;
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
-@EnableGlobalMethodSecurity(prePostEnabled = true)
 @EnableWebSecurity
 public class WebSecurityConfiguration {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(WebSecurityConfiguration.class);
+
+  @Bean
+  public BCryptCalibration bcryptCalibration(
+      @Value("${library.security.password-hashing.bcrypt.strength:0}") int strength,
+      @Value("${library.security.password-hashing.bcrypt.target:50ms}") Duration target,
+      @Value("${library.security.password-hashing.bcrypt.minimum-strength:10}") int minimumStrength,
+      @Value("${library.security.password-hashing.bcrypt.maximum-strength:14}")
+          int maximumStrength) {
+    if (strength > 0) {
+      return BCryptCalibration.fixed(strength);
+    }
+    BCryptCalibration calibration =
+        BCryptCalibration.calibrate(target, minimumStrength, maximumStrength);
+    LOGGER.info(
+        "Calibrated bcrypt strength {} with estimated hashing time of {} ms for target of {} ms",
+        calibration.getStrength(),
+        calibration.getEstimatedHashTime().toMillis(),
+        target.toMillis());
+    return calibration;
+  }
+
+  @Bean
+  public InfoContributor passwordHashingInfoContributor(BCryptCalibration calibration) {
+    Map<String, Object> details = new LinkedHashMap<>();
+    details.put("algorithm", "bcrypt");
+    details.put("strength", calibration.getStrength());
+    if (calibration.getTarget() != null) {
+      details.put("targetMillis", calibration.getTarget().toMillis());
+      details.put("estimatedMillis", calibration.getEstimatedHashTime().toMillis());
+    }
+    return builder -> builder.withDetail("passwordHashing", details);
+  }
+
+  /**
+   * Encodes with bcrypt at the calibrated strength. Passwords in other encodings or with a lower
+   * bcrypt strength are still matched and get upgraded on login.
+   */
   @Primary
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      BCryptCalibration calibration,
+      MeterRegistry meterRegistry,
+      @Value("${library.security.password-hashing.threads:0}") int threads,
+      @Value("${library.security.password-hashing.queue-capacity:50}") int queueCapacity,
+      @Value("${library.security.password-hashing.timeout:2s}") Duration timeout) {
+    String encodingId = "bcrypt";
+    DelegatingPasswordEncoder passwordEncoder =
+        new DelegatingPasswordEncoder(
+            encodingId,
+            Collections.singletonMap(
+                encodingId, new BCryptPasswordEncoder(calibration.getStrength())));
+    passwordEncoder.setDefaultPasswordEncoderForMatches(
+        PasswordEncoderFactories.createDelegatingPasswordEncoder());
+    return new BulkheadPasswordEncoder(
+        passwordEncoder,
+        threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+        queueCapacity,
+        timeout,
+        meterRegistry);
   }
 
   @Qualifier("LegacyEncoder")
@@ -47,20 +128,99 @@ public class WebSecurityConfiguration {
     return new DelegatingPasswordEncoder(encodingId, encoders);
   }
 
+  @Bean
+  public CaffeineUserCache userCache(
+      MeterRegistry meterRegistry,
+      @Value("${library.security.user-cache.ttl:5m}") Duration timeToLive,
+      @Value("${library.security.user-cache.maximum-size:10000}") long maximumSize,
+      @Value("${library.security.user-cache.unknown-ttl:1m}") Duration unknownTimeToLive,
+      @Value("${library.security.user-cache.unknown-maximum-size:100000}")
+          long unknownMaximumSize) {
+    return new CaffeineUserCache(
+        timeToLive, maximumSize, unknownTimeToLive, unknownMaximumSize, meterRegistry);
+  }
+
+  @Bean
+  public CachingAuthenticationProvider cachingAuthenticationProvider(
+      LibraryUserDetailsService userDetailsService,
+      CaffeineUserCache userCache,
+      PasswordEncoder passwordEncoder,
+      MeterRegistry meterRegistry,
+      @Value("${library.security.authentication-cache.ttl:5m}") Duration timeToLive,
+      @Value("${library.security.authentication-cache.maximum-size:10000}") long maximumSize) {
+    DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+    authenticationProvider.setUserDetailsService(userDetailsService);
+    authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+    authenticationProvider.setPasswordEncoder(passwordEncoder);
+    authenticationProvider.setUserCache(userCache);
+    return new CachingAuthenticationProvider(
+        authenticationProvider, timeToLive, maximumSize, meterRegistry);
+  }
+
+  @Bean
+  public X509PrincipalCache x509PrincipalCache(
+      @Qualifier("library-user-details-service") UserDetailsService userDetailsService,
+      CaffeineUserCache userCache,
+      MeterRegistry meterRegistry,
+      @Value("${library.security.x509-cache.ttl:1h}") Duration timeToLive,
+      @Value("${library.security.x509-cache.maximum-size:1000}") long maximumSize) {
+    SubjectDnX509PrincipalExtractor principalExtractor = new SubjectDnX509PrincipalExtractor();
+    principalExtractor.setSubjectDnRegex("CN=(.*?),");
+    CachingUserDetailsService cachingUserDetailsService =
+        new CachingUserDetailsService(userDetailsService);
+    cachingUserDetailsService.setUserCache(userCache);
+    return new X509PrincipalCache(
+        principalExtractor, cachingUserDetailsService, timeToLive, maximumSize, meterRegistry);
+  }
+
   @Configuration
   public static class ApiWebSecurityConfigurationAdapter extends WebSecurityConfigurerAdapter {
 
-    private final UserDetailsService userDetailsService;
+    private static final String BASIC_PREFIX = "Basic ";
+
+    /**
+     * Token requests authenticating with HTTP basic. Requests relying on the session cookie of the
+     * form login are not matched and keep their CSRF protection.
+     */
+    private static final RequestMatcher BASIC_AUTHENTICATED_TOKEN_REQUEST =
+        new AndRequestMatcher(
+            new AntPathRequestMatcher("/token"),
+            r -> {
+              String authorization = r.getHeader(HttpHeaders.AUTHORIZATION);
+              return authorization != null
+                  && authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length());
+            });
+
+    private final X509PrincipalCache x509PrincipalCache;
+    private final CachingAuthenticationProvider authenticationProvider;
+    private final AccessTokenCodec accessTokenCodec;
 
     public ApiWebSecurityConfigurationAdapter(
-        @Qualifier("library-user-details-service") UserDetailsService userDetailsService) {
-      this.userDetailsService = userDetailsService;
+        X509PrincipalCache x509PrincipalCache,
+        CachingAuthenticationProvider authenticationProvider,
+        AccessTokenCodec accessTokenCodec) {
+      this.x509PrincipalCache = x509PrincipalCache;
+      this.authenticationProvider = authenticationProvider;
+      this.accessTokenCodec = accessTokenCodec;
+    }
+
+    @Override
+    protected void configure(AuthenticationManagerBuilder auth) {
+      auth.authenticationProvider(authenticationProvider);
     }
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
       // http.csrf().disable();
-      http.authorizeRequests(
+      http.csrf(
+              c ->
+                  c.ignoringRequestMatchers(
+                      BASIC_AUTHENTICATED_TOKEN_REQUEST,
+                      AccessTokenAuthenticationFilter.BEARER_TOKEN_REQUEST))
+          .addFilterBefore(
+              new AccessTokenAuthenticationFilter(accessTokenCodec),
+              BasicAuthenticationFilter.class)
+          .authorizeRequests(
               authorizeRequests ->
                   authorizeRequests
                       .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class))
@@ -76,7 +236,7 @@ public class WebSecurityConfiguration {
                           "/books/{bookIdentifier}/borrow/{userIdentifier}",
                           "/books/{bookIdentifier}/return/{userIdentifier}")
                       .hasRole("LIBRARY_USER")
-                      .mvcMatchers(POST, "/books")
+                      .mvcMatchers(POST, "/books", "/books/batch")
                       .hasRole("LIBRARY_CURATOR")
                       .mvcMatchers(PUT, "/books/{bookIdentifier}")
                       .hasRole("LIBRARY_CURATOR")
@@ -86,14 +246,13 @@ public class WebSecurityConfiguration {
                       .hasRole("LIBRARY_ADMIN")
                       .anyRequest()
                       .authenticated())
-          .httpBasic(withDefaults())
+          .httpBasic(b -> b.authenticationEntryPoint(new OverloadAwareAuthenticationEntryPoint()))
           .formLogin(withDefaults())
           .headers(h -> h.httpStrictTransportSecurity().disable())
           .x509(
-              x -> {
-                x.subjectPrincipalRegex("CN=(.*?),");
-                x.userDetailsService(userDetailsService);
-              });
+              x ->
+                  x.x509PrincipalExtractor(x509PrincipalCache)
+                      .authenticationUserDetailsService(x509PrincipalCache));
     }
   }
 }
@@ -2,14 +2,22 @@ package com.example.libraryserver.security;
 
 import com.example.libraryserver.user.data.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 
+/**
+ * The user as principal. Roles are copied at construction, and the authorities are computed once
+ * from the shared {@link RoleAuthorities}, as they are asked for several times per request.
+ */
 public class AuthenticatedUser extends User implements UserDetails {
 
+  private final RoleSet roleSet;
+  private final List<GrantedAuthority> authorities;
+
   public AuthenticatedUser(User user) {
     super(
         user.getIdentifier(),
@@ -17,14 +25,18 @@ public class AuthenticatedUser extends User implements UserDetails {
         user.getLastName(),
         user.getEmail(),
         user.getPassword(),
-        user.getRoles());
+        Collections.unmodifiableSet(new HashSet<>(user.getRoles())));
+    this.roleSet = RoleSet.of(getRoles());
+    this.authorities = roleSet.toAuthorities();
+  }
+
+  public RoleSet getRoleSet() {
+    return roleSet;
   }
 
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-
-    return AuthorityUtils.commaSeparatedStringToAuthorityList(
-            getRoles().stream().map(rn -> "ROLE_" + rn).collect(Collectors.joining(",")));
+    return authorities;
   }
 
   @Override
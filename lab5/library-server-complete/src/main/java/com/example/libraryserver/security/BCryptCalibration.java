@@ -0,0 +1,74 @@
+package com.example.libraryserver.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Chooses the bcrypt strength for the current CPU. Each strength step doubles the hashing time, so
+ * the time of a single hash at the minimum strength is measured and the strength raised as long as
+ * a hash still fits into the target time.
+ */
+public final class BCryptCalibration {
+
+  private static final String SAMPLE_PASSWORD = "Calibration4Library";
+  private static final int WARM_UP_ROUNDS = 20;
+  private static final int MEASUREMENT_ROUNDS = 3;
+
+  private final int strength;
+  private final Duration target;
+  private final Duration estimatedHashTime;
+
+  private BCryptCalibration(int strength, Duration target, Duration estimatedHashTime) {
+    this.strength = strength;
+    this.target = target;
+    this.estimatedHashTime = estimatedHashTime;
+  }
+
+  /**
+   * @param target the maximum time a single hash should take
+   * @param minimumStrength the strength used even if it exceeds the target
+   * @param maximumStrength the strength not exceeded even if it stays below the target
+   */
+  public static BCryptCalibration calibrate(
+      Duration target, int minimumStrength, int maximumStrength) {
+    BCryptPasswordEncoder warmUpEncoder = new BCryptPasswordEncoder(4);
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      warmUpEncoder.encode(SAMPLE_PASSWORD);
+    }
+
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minimumStrength);
+    long hashNanos = Long.MAX_VALUE;
+    for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+      long start = System.nanoTime();
+      encoder.encode(SAMPLE_PASSWORD);
+      hashNanos = Math.min(hashNanos, System.nanoTime() - start);
+    }
+
+    int strength = minimumStrength;
+    while (strength < maximumStrength && hashNanos * 2 <= target.toNanos()) {
+      strength++;
+      hashNanos *= 2;
+    }
+    return new BCryptCalibration(strength, target, Duration.ofNanos(hashNanos));
+  }
+
+  /** @return a calibration with a configured strength, without measuring */
+  public static BCryptCalibration fixed(int strength) {
+    return new BCryptCalibration(strength, null, null);
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  /** @return the target hashing time or <code>null</code> if the strength has been configured */
+  public Duration getTarget() {
+    return target;
+  }
+
+  /** @return the estimated hashing time or <code>null</code> if the strength has been configured */
+  public Duration getEstimatedHashTime() {
+    return estimatedHashTime;
+  }
+}
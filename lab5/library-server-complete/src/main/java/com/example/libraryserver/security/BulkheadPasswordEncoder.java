@@ -0,0 +1,135 @@
+package com.example.libraryserver.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated, bounded executor. A burst of logins then only saturates
+ * this executor instead of all request threads. Requests exceeding its queue are rejected right
+ * away with a {@link PasswordHashingUnavailableException}.
+ */
+public class BulkheadPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor threadPool;
+  private final ExecutorService executor;
+  private final Duration timeout;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter queueFullCounter;
+  private final Counter timeoutCounter;
+
+  /**
+   * @param delegate the encoder doing the actual hashing
+   * @param threads maximum number of concurrent hash calculations
+   * @param queueCapacity maximum number of waiting hash calculations
+   * @param timeout maximum time to wait for a hash calculation, including the time in the queue
+   */
+  public BulkheadPasswordEncoder(
+      PasswordEncoder delegate,
+      int threads,
+      int queueCapacity,
+      Duration timeout,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.timeout = timeout;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.threadPool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+              Thread thread = new Thread(r, "password-hashing-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "password-hashing");
+
+    this.encodeTimer = hashingTimer(meterRegistry, "encode");
+    this.matchesTimer = hashingTimer(meterRegistry, "matches");
+    this.queueFullCounter = rejectedCounter(meterRegistry, "queue-full");
+    this.timeoutCounter = rejectedCounter(meterRegistry, "timeout");
+  }
+
+  private static Timer hashingTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("library.password.hashing")
+        .description("Time spent hashing passwords, without waiting in the queue")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+
+  private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("library.password.hashing.rejected")
+        .description("Number of rejected password hashing requests")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return execute(encodeTimer, () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T execute(Timer timer, Supplier<T> operation) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timer.record(operation));
+    } catch (RejectedExecutionException ex) {
+      queueFullCounter.increment();
+      throw new PasswordHashingUnavailableException("Too many password hashing requests", ex);
+    }
+
+    try {
+      return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      future.cancel(true);
+      timeoutCounter.increment();
+      throw new PasswordHashingUnavailableException("Password hashing timed out", ex);
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingUnavailableException("Interrupted waiting for password hashing", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  public void shutdown() {
+    threadPool.shutdown();
+  }
+}
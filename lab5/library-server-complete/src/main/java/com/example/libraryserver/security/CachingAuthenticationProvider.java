@@ -0,0 +1,129 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.service.UserDeletedEvent;
+import com.example.libraryserver.user.service.UserSavedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers successful username/password authentications for a limited time, so clients sending
+ * Basic credentials with each request do not pay for a password hash verification every time.
+ *
+ * <p>Entries are keyed by an HMAC of username and password with a key generated at startup, so
+ * neither passwords nor plain hashes of them are kept in memory. Entries of a user are removed when
+ * the user is changed or deleted.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final AuthenticationProvider delegate;
+  private final Cache<String, Authentication> cache;
+  private final SecretKeySpec key;
+  private final AtomicLong generation = new AtomicLong();
+
+  public CachingAuthenticationProvider(
+      AuthenticationProvider delegate,
+      Duration timeToLive,
+      long maximumSize,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.cache =
+        Caffeine.newBuilder()
+            .expireAfterWrite(timeToLive)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+    byte[] keyBytes = new byte[32];
+    new SecureRandom().nextBytes(keyBytes);
+    this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "authentication");
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    if (authentication.getCredentials() == null) {
+      return delegate.authenticate(authentication);
+    }
+    String cacheKey =
+        cacheKey(authentication.getName(), authentication.getCredentials().toString());
+
+    Authentication cached = cache.getIfPresent(cacheKey);
+    if (cached != null) {
+      UsernamePasswordAuthenticationToken result =
+          new UsernamePasswordAuthenticationToken(
+              cached.getPrincipal(), null, cached.getAuthorities());
+      result.setDetails(authentication.getDetails());
+      return result;
+    }
+
+    long currentGeneration = generation.get();
+    Authentication result = delegate.authenticate(authentication);
+    if (result != null && result.isAuthenticated()) {
+      cache.put(cacheKey, result);
+      // a user changed while authenticating might have been loaded before the change
+      if (generation.get() != currentGeneration) {
+        cache.invalidate(cacheKey);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+  }
+
+  @TransactionalEventListener
+  public void onUserSaved(UserSavedEvent event) {
+    invalidate(event.getIdentifier());
+  }
+
+  @TransactionalEventListener
+  public void onUserDeleted(UserDeletedEvent event) {
+    invalidate(event.getIdentifier());
+  }
+
+  private void invalidate(UUID identifier) {
+    generation.incrementAndGet();
+    cache
+        .asMap()
+        .values()
+        .removeIf(
+            a ->
+                a.getPrincipal() instanceof AuthenticatedUser
+                    && identifier.equals(((AuthenticatedUser) a.getPrincipal()).getIdentifier()));
+  }
+
+  private String cacheKey(String username, String password) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      mac.update(username.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      return Base64.getEncoder()
+          .encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException(HMAC_ALGORITHM + " is not available", ex);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.service.UserDeletedEvent;
+import com.example.libraryserver.user.service.UserSavedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Caches loaded users for the authentication providers, and separately remembers usernames no user
+ * has been found for. The latter keeps floods of logins with unknown usernames away from the
+ * database. Users are removed after they have been changed or deleted.
+ */
+public class CaffeineUserCache implements UserCache {
+
+  private final Cache<String, UserDetails> users;
+  private final Cache<String, Boolean> unknownUsernames;
+
+  public CaffeineUserCache(
+      Duration timeToLive,
+      long maximumSize,
+      Duration unknownTimeToLive,
+      long unknownMaximumSize,
+      MeterRegistry meterRegistry) {
+    this.users =
+        Caffeine.newBuilder()
+            .expireAfterWrite(timeToLive)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+    this.unknownUsernames =
+        Caffeine.newBuilder()
+            .expireAfterWrite(unknownTimeToLive)
+            .maximumSize(unknownMaximumSize)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    CaffeineCacheMetrics.monitor(meterRegistry, unknownUsernames, "unknown-usernames");
+  }
+
+  @Override
+  public UserDetails getUserFromCache(String username) {
+    return users.getIfPresent(username);
+  }
+
+  @Override
+  public void putUserInCache(UserDetails user) {
+    users.put(user.getUsername(), user);
+  }
+
+  @Override
+  public void removeUserFromCache(String username) {
+    users.invalidate(username);
+  }
+
+  public boolean isUnknownUsername(String username) {
+    return unknownUsernames.getIfPresent(username) != null;
+  }
+
+  public void putUnknownUsername(String username) {
+    unknownUsernames.put(username, Boolean.TRUE);
+  }
+
+  @TransactionalEventListener
+  public void onUserSaved(UserSavedEvent event) {
+    removeUser(event.getIdentifier(), event.getEmail());
+    unknownUsernames.invalidate(event.getEmail());
+  }
+
+  @TransactionalEventListener
+  public void onUserDeleted(UserDeletedEvent event) {
+    removeUser(event.getIdentifier(), event.getEmail());
+  }
+
+  /** Removes the user by identifier as well, as the email might have changed. */
+  private void removeUser(UUID identifier, String email) {
+    users.invalidate(email);
+    users
+        .asMap()
+        .values()
+        .removeIf(
+            u ->
+                u instanceof AuthenticatedUser
+                    && identifier.equals(((AuthenticatedUser) u).getIdentifier()));
+  }
+}
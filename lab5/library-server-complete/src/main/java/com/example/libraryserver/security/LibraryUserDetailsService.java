@@ -1,5 +1,7 @@
 package com.example.libraryserver.security;
 
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.service.PasswordUpgrade;
 import com.example.libraryserver.user.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,34 +19,57 @@ public class LibraryUserDetailsService implements UserDetailsService, UserDetail
   private static final Logger LOGGER = LoggerFactory.getLogger(LibraryUserDetailsService.class);
 
   private final UserService userService;
+  private final PasswordUpgradeWorker passwordUpgradeWorker;
+  private final CaffeineUserCache userCache;
 
-  public LibraryUserDetailsService(UserService userService) {
+  public LibraryUserDetailsService(
+      UserService userService,
+      PasswordUpgradeWorker passwordUpgradeWorker,
+      CaffeineUserCache userCache) {
     this.userService = userService;
+    this.passwordUpgradeWorker = passwordUpgradeWorker;
+    this.userCache = userCache;
   }
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    if (userCache.isUnknownUsername(username)) {
+      throw new UsernameNotFoundException("No user found for " + username);
+    }
     return userService
         .findOneByEmail(username)
         .map(AuthenticatedUser::new)
-        .orElseThrow(() -> new UsernameNotFoundException("No user found for " + username));
+        .orElseThrow(
+            () -> {
+              userCache.putUnknownUsername(username);
+              return new UsernameNotFoundException("No user found for " + username);
+            });
   }
 
+  /**
+   * Queues the upgraded password for the {@link PasswordUpgradeWorker}, so the login does not wait
+   * for it to be stored.
+   */
   @Override
   public UserDetails updatePassword(UserDetails user, String newPassword) {
-    return userService
-        .findOneByEmail(user.getUsername())
-        .map(
-            u -> {
-              LOGGER.info(
-                  "Upgrading password {} for user {} to {}",
-                  user.getPassword(),
-                  user.getUsername(),
-                  newPassword);
-              u.setPassword(newPassword);
-              return new AuthenticatedUser(userService.save(u));
-            })
-        .orElseThrow(
-            () -> new UsernameNotFoundException("No user found for " + user.getUsername()));
+    LOGGER.debug("Queueing password upgrade for user {}", user.getUsername());
+
+    User upgradedUser =
+        user instanceof AuthenticatedUser
+            ? (AuthenticatedUser) user
+            : userService
+                .findOneByEmail(user.getUsername())
+                .orElseThrow(
+                    () -> new UsernameNotFoundException("No user found for " + user.getUsername()));
+    passwordUpgradeWorker.submit(
+        new PasswordUpgrade(user.getUsername(), user.getPassword(), newPassword));
+    return new AuthenticatedUser(
+        new User(
+            upgradedUser.getIdentifier(),
+            upgradedUser.getFirstName(),
+            upgradedUser.getLastName(),
+            upgradedUser.getEmail(),
+            newPassword,
+            upgradedUser.getRoles()));
   }
 }
@@ -0,0 +1,34 @@
+package com.example.libraryserver.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Asks for Basic authentication like the default entry point, but answers with status 503 if the
+ * credentials could not be checked because password hashing is saturated.
+ */
+public class OverloadAwareAuthenticationEntryPoint extends BasicAuthenticationEntryPoint {
+
+  public OverloadAwareAuthenticationEntryPoint() {
+    setRealmName("Realm");
+  }
+
+  @Override
+  public void commence(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      AuthenticationException authException)
+      throws IOException {
+    if (authException instanceof PasswordHashingUnavailableException) {
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    } else {
+      super.commence(request, response, authException);
+    }
+  }
+}
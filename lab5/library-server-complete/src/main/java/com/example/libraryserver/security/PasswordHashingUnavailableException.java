@@ -0,0 +1,16 @@
+package com.example.libraryserver.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown if a password cannot be hashed or verified right now, because the password hashing
+ * executor is saturated.
+ */
+public class PasswordHashingUnavailableException extends AuthenticationServiceException {
+
+  private static final long serialVersionUID = 1L;
+
+  public PasswordHashingUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.service.PasswordUpgrade;
+import com.example.libraryserver.user.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores upgraded password encodings in the background, so logging in with a legacy password hash
+ * does not wait for a write transaction. Pending upgrades are kept per user, so concurrent logins
+ * of a user queue a single upgrade, and are written in batches.
+ *
+ * <p>The backlog is bounded. Upgrades submitted while it is full are dropped and submitted again
+ * with the next login of the user.
+ */
+@Component
+public class PasswordUpgradeWorker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PasswordUpgradeWorker.class);
+
+  private final UserService userService;
+  private final int maximumBacklog;
+  private final int batchSize;
+  private final Map<String, PasswordUpgrade> pendingUpgrades = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService executor;
+  private final Counter upgradedCounter;
+  private final Counter skippedCounter;
+  private final Counter droppedCounter;
+  private final Counter failedCounter;
+
+  public PasswordUpgradeWorker(
+      UserService userService,
+      MeterRegistry meterRegistry,
+      @Value("${library.security.password-upgrade.maximum-backlog:10000}") int maximumBacklog,
+      @Value("${library.security.password-upgrade.batch-size:100}") int batchSize,
+      @Value("${library.security.password-upgrade.interval:1s}") Duration interval) {
+    this.userService = userService;
+    this.maximumBacklog = maximumBacklog;
+    this.batchSize = batchSize;
+
+    Gauge.builder("library.password.upgrade.backlog", pendingUpgrades, Map::size)
+        .description("Number of password upgrades waiting to be stored")
+        .register(meterRegistry);
+    this.upgradedCounter = upgradeCounter(meterRegistry, "upgraded");
+    this.skippedCounter = upgradeCounter(meterRegistry, "skipped");
+    this.droppedCounter = upgradeCounter(meterRegistry, "dropped");
+    this.failedCounter = upgradeCounter(meterRegistry, "failed");
+
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "password-upgrade");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalMillis = interval.toMillis();
+    this.executor.scheduleWithFixedDelay(
+        this::storePendingUpgrades, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private static Counter upgradeCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("library.password.upgrades")
+        .description("Number of processed password upgrades")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /** @return <code>false</code> if the upgrade has been dropped because the backlog is full */
+  public boolean submit(PasswordUpgrade upgrade) {
+    if (pendingUpgrades.size() >= maximumBacklog) {
+      droppedCounter.increment();
+      return false;
+    }
+    pendingUpgrades.putIfAbsent(upgrade.getEmail(), upgrade);
+    return true;
+  }
+
+  void storePendingUpgrades() {
+    while (!pendingUpgrades.isEmpty()) {
+      List<PasswordUpgrade> batch = new ArrayList<>(batchSize);
+      Iterator<PasswordUpgrade> iterator = pendingUpgrades.values().iterator();
+      while (iterator.hasNext() && batch.size() < batchSize) {
+        batch.add(iterator.next());
+      }
+      try {
+        int upgraded = userService.upgradePasswords(batch);
+        upgradedCounter.increment(upgraded);
+        skippedCounter.increment(batch.size() - upgraded);
+        LOGGER.debug("Upgraded password encoding of {} users", upgraded);
+      } catch (RuntimeException ex) {
+        failedCounter.increment(batch.size());
+        LOGGER.warn("Could not upgrade password encoding of {} users", batch.size(), ex);
+      } finally {
+        batch.forEach(u -> pendingUpgrades.remove(u.getEmail(), u));
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    if (executor.awaitTermination(10, TimeUnit.SECONDS)) {
+      storePendingUpgrades();
+    }
+  }
+}
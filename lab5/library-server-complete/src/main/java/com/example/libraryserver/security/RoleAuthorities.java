@@ -0,0 +1,50 @@
+package com.example.libraryserver.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Interned table of roles. Each role gets an index the first time it is seen, which is its bit in
+ * a {@link RoleSet}, and a single {@link GrantedAuthority} shared by all users having the role.
+ */
+public final class RoleAuthorities {
+
+  public static final String ROLE_PREFIX = "ROLE_";
+
+  private static final Map<String, Integer> INDEXES = new ConcurrentHashMap<>();
+  private static final List<GrantedAuthority> AUTHORITIES = new CopyOnWriteArrayList<>();
+
+  private RoleAuthorities() {}
+
+  /** @return the index of the role, which is assigned if the role has not been seen before */
+  public static int intern(String role) {
+    Integer index = INDEXES.get(role);
+    return index != null ? index : register(role);
+  }
+
+  /** @return the index of the role, or <code>-1</code> if it has not been seen before */
+  public static int indexOf(String role) {
+    return INDEXES.getOrDefault(role, -1);
+  }
+
+  /** @return the shared authority of the role with the given index */
+  public static GrantedAuthority authority(int index) {
+    return AUTHORITIES.get(index);
+  }
+
+  private static synchronized int register(String role) {
+    Integer index = INDEXES.get(role);
+    if (index == null) {
+      // the authority is added first, so a published index always has its authority
+      AUTHORITIES.add(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+      index = AUTHORITIES.size() - 1;
+      INDEXES.put(role, index);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.libraryserver.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/** Immutable set of roles stored as bits indexed by {@link RoleAuthorities}. */
+public final class RoleSet {
+
+  private static final RoleSet EMPTY = new RoleSet(new long[0]);
+
+  private final long[] words;
+
+  private RoleSet(long[] words) {
+    this.words = words;
+  }
+
+  public static RoleSet of(Collection<String> roles) {
+    if (roles == null || roles.isEmpty()) {
+      return EMPTY;
+    }
+    long[] words = new long[0];
+    for (String role : roles) {
+      int index = RoleAuthorities.intern(role);
+      int word = index >>> 6;
+      if (word >= words.length) {
+        words = Arrays.copyOf(words, word + 1);
+      }
+      words[word] |= 1L << index;
+    }
+    return new RoleSet(words);
+  }
+
+  /** @param role role name without the <code>ROLE_</code> prefix */
+  public boolean contains(String role) {
+    int index = RoleAuthorities.indexOf(role);
+    return index >= 0 && contains(index);
+  }
+
+  private boolean contains(int index) {
+    int word = index >>> 6;
+    return word < words.length && (words[word] & (1L << index)) != 0;
+  }
+
+  public boolean isEmpty() {
+    return words.length == 0;
+  }
+
+  /** @return the shared authorities of the roles, ordered by their index */
+  public List<GrantedAuthority> toAuthorities() {
+    List<GrantedAuthority> authorities = new ArrayList<>();
+    for (int word = 0; word < words.length; word++) {
+      long bits = words[word];
+      while (bits != 0) {
+        int bit = Long.numberOfTrailingZeros(bits);
+        authorities.add(RoleAuthorities.authority((word << 6) + bit));
+        bits &= bits - 1;
+      }
+    }
+    return Collections.unmodifiableList(authorities);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return Arrays.equals(words, ((RoleSet) o).words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    return "RoleSet" + toAuthorities();
+  }
+}
@@ -0,0 +1,164 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.service.UserDeletedEvent;
+import com.example.libraryserver.user.service.UserSavedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.AuthenticationUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.security.web.authentication.preauth.x509.X509PrincipalExtractor;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the user resolved for a client certificate, keyed by the SHA-256 fingerprint of the
+ * certificate. Clients authenticating with a known certificate skip both the principal extraction
+ * from the subject and the user lookup.
+ *
+ * <p>Entries expire with the certificate at the latest, and are removed when the user is changed or
+ * deleted.
+ */
+public class X509PrincipalCache
+    implements X509PrincipalExtractor,
+        AuthenticationUserDetailsService<PreAuthenticatedAuthenticationToken> {
+
+  private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+  private final X509PrincipalExtractor principalExtractor;
+  private final UserDetailsService userDetailsService;
+  private final Cache<String, Entry> cache;
+  private final AtomicLong generation = new AtomicLong();
+
+  public X509PrincipalCache(
+      X509PrincipalExtractor principalExtractor,
+      UserDetailsService userDetailsService,
+      Duration timeToLive,
+      long maximumSize,
+      MeterRegistry meterRegistry) {
+    this.principalExtractor = principalExtractor;
+    this.userDetailsService = userDetailsService;
+    this.cache =
+        Caffeine.newBuilder()
+            .expireAfter(new CertificateExpiry(timeToLive))
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "x509-principals");
+  }
+
+  @Override
+  public Object extractPrincipal(X509Certificate clientCert) {
+    Entry entry = cache.getIfPresent(fingerprint(clientCert));
+    return entry != null ? entry.principal : principalExtractor.extractPrincipal(clientCert);
+  }
+
+  @Override
+  public UserDetails loadUserDetails(PreAuthenticatedAuthenticationToken token)
+      throws UsernameNotFoundException {
+    if (!(token.getCredentials() instanceof X509Certificate)) {
+      return userDetailsService.loadUserByUsername(token.getName());
+    }
+    X509Certificate certificate = (X509Certificate) token.getCredentials();
+    String fingerprint = fingerprint(certificate);
+    Entry entry = cache.getIfPresent(fingerprint);
+    if (entry != null && entry.principal.equals(token.getName())) {
+      return entry.user;
+    }
+
+    long currentGeneration = generation.get();
+    UserDetails user = userDetailsService.loadUserByUsername(token.getName());
+    if (user instanceof AuthenticatedUser) {
+      long notAfterMillis = certificate.getNotAfter().getTime();
+      cache.put(fingerprint, new Entry(token.getName(), (AuthenticatedUser) user, notAfterMillis));
+      // a user changed while loading might have been loaded before the change
+      if (generation.get() != currentGeneration) {
+        cache.invalidate(fingerprint);
+      }
+    }
+    return user;
+  }
+
+  @TransactionalEventListener
+  public void onUserSaved(UserSavedEvent event) {
+    invalidate(event.getIdentifier());
+  }
+
+  @TransactionalEventListener
+  public void onUserDeleted(UserDeletedEvent event) {
+    invalidate(event.getIdentifier());
+  }
+
+  private void invalidate(UUID identifier) {
+    generation.incrementAndGet();
+    cache.asMap().values().removeIf(e -> identifier.equals(e.user.getIdentifier()));
+  }
+
+  private static String fingerprint(X509Certificate certificate) {
+    try {
+      return Base64.getEncoder()
+          .encodeToString(
+              MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(certificate.getEncoded()));
+    } catch (CertificateEncodingException ex) {
+      throw new IllegalArgumentException("Invalid client certificate", ex);
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException(FINGERPRINT_ALGORITHM + " is not available", ex);
+    }
+  }
+
+  private static final class Entry {
+
+    private final String principal;
+    private final AuthenticatedUser user;
+    private final long notAfterMillis;
+
+    private Entry(String principal, AuthenticatedUser user, long notAfterMillis) {
+      this.principal = principal;
+      this.user = user;
+      this.notAfterMillis = notAfterMillis;
+    }
+  }
+
+  /** Expires entries after the time to live, or when the certificate expires if that is earlier. */
+  private static final class CertificateExpiry implements Expiry<String, Entry> {
+
+    private final long timeToLiveNanos;
+
+    private CertificateExpiry(Duration timeToLive) {
+      this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(String key, Entry value, long currentTime) {
+      long untilNotAfter =
+          TimeUnit.MILLISECONDS.toNanos(value.notAfterMillis - System.currentTimeMillis());
+      return Math.max(0, Math.min(timeToLiveNanos, untilNotAfter));
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, Entry value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.libraryserver.security.method;
+
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Predicate;
+
+/** A <code>@PreAuthorize</code> expression compiled to a direct check of the authentication. */
+public final class RoleCheckAttribute implements PreInvocationAttribute {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String expression;
+  private final Predicate<Authentication> check;
+
+  RoleCheckAttribute(String expression, Predicate<Authentication> check) {
+    this.expression = expression;
+    this.check = check;
+  }
+
+  public boolean isGranted(Authentication authentication) {
+    return check.test(authentication);
+  }
+
+  /** @return <code>null</code>, as the attribute cannot be represented as a string */
+  @Override
+  public String getAttribute() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "[authorize (compiled): '" + expression + "']";
+  }
+}
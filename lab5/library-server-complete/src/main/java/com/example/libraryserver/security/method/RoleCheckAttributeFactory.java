@@ -0,0 +1,77 @@
+package com.example.libraryserver.security.method;
+
+import com.example.libraryserver.security.RoleAuthorities;
+import org.springframework.security.access.prepost.PostInvocationAttribute;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.access.prepost.PrePostInvocationAttributeFactory;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.libraryserver.security.RoleAuthorities.ROLE_PREFIX;
+
+/**
+ * Compiles the simple <code>@PreAuthorize</code> expressions <code>isAuthenticated()</code> and
+ * <code>hasRole('...')</code> into {@link RoleCheckAttribute}s when the method security metadata is
+ * read at startup. All other expressions, and any combined with <code>@PreFilter</code>, are left
+ * to the SpEL based delegate.
+ *
+ * <p>The compiled checks match the default expression handler, which has no role hierarchy.
+ */
+public class RoleCheckAttributeFactory implements PrePostInvocationAttributeFactory {
+
+  private static final String IS_AUTHENTICATED = "isAuthenticated()";
+  private static final Pattern HAS_ROLE = Pattern.compile("hasRole\\('(\\w+)'\\)");
+
+  private final PrePostInvocationAttributeFactory delegate;
+  private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+  public RoleCheckAttributeFactory(PrePostInvocationAttributeFactory delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public PreInvocationAttribute createPreInvocationAttribute(
+      String preFilterAttribute, String filterObject, String preAuthorizeAttribute) {
+    if (preFilterAttribute == null && preAuthorizeAttribute != null) {
+      String expression = preAuthorizeAttribute.trim();
+      if (IS_AUTHENTICATED.equals(expression)) {
+        return new RoleCheckAttribute(expression, a -> !trustResolver.isAnonymous(a));
+      }
+      Matcher hasRole = HAS_ROLE.matcher(expression);
+      if (hasRole.matches()) {
+        String role = hasRole.group(1);
+        if (role.startsWith(ROLE_PREFIX)) {
+          role = role.substring(ROLE_PREFIX.length());
+        }
+        GrantedAuthority authority = RoleAuthorities.authority(RoleAuthorities.intern(role));
+        return new RoleCheckAttribute(expression, a -> hasAuthority(a, authority));
+      }
+    }
+    return delegate.createPreInvocationAttribute(
+        preFilterAttribute, filterObject, preAuthorizeAttribute);
+  }
+
+  @Override
+  public PostInvocationAttribute createPostInvocationAttribute(
+      String postFilterAttribute, String postAuthorizeAttribute) {
+    return delegate.createPostInvocationAttribute(postFilterAttribute, postAuthorizeAttribute);
+  }
+
+  /**
+   * Authorities of users are shared instances, so the identity comparison usually decides.
+   * Authorities created elsewhere are compared by name.
+   */
+  private static boolean hasAuthority(Authentication authentication, GrantedAuthority authority) {
+    for (GrantedAuthority granted : authentication.getAuthorities()) {
+      if (granted == authority || authority.getAuthority().equals(granted.getAuthority())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
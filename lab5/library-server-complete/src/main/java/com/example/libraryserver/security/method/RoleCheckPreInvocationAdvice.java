@@ -0,0 +1,25 @@
+package com.example.libraryserver.security.method;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.access.prepost.PreInvocationAuthorizationAdvice;
+import org.springframework.security.core.Authentication;
+
+/** Decides compiled {@link RoleCheckAttribute}s directly, and all others by SpEL evaluation. */
+public class RoleCheckPreInvocationAdvice implements PreInvocationAuthorizationAdvice {
+
+  private final PreInvocationAuthorizationAdvice delegate;
+
+  public RoleCheckPreInvocationAdvice(PreInvocationAuthorizationAdvice delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean before(
+      Authentication authentication, MethodInvocation mi, PreInvocationAttribute preAttr) {
+    if (preAttr instanceof RoleCheckAttribute) {
+      return ((RoleCheckAttribute) preAttr).isGranted(authentication);
+    }
+    return delegate.before(authentication, mi, preAttr);
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.libraryserver.security.token;
+
+import com.example.libraryserver.security.AuthenticatedUser;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Transient;
+
+/**
+ * Authentication by an access token. It is {@link Transient}, so authenticating a request with a
+ * token does not create an HTTP session.
+ */
+@Transient
+public class AccessTokenAuthentication extends AbstractAuthenticationToken {
+
+  private static final long serialVersionUID = 1L;
+
+  private final AuthenticatedUser principal;
+  private final String token;
+
+  public AccessTokenAuthentication(AuthenticatedUser principal, String token) {
+    super(principal.getAuthorities());
+    this.principal = principal;
+    this.token = token;
+    setAuthenticated(true);
+  }
+
+  @Override
+  public String getCredentials() {
+    return token;
+  }
+
+  @Override
+  public AuthenticatedUser getPrincipal() {
+    return principal;
+  }
+}
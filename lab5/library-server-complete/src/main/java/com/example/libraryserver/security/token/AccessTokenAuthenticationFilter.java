@@ -0,0 +1,69 @@
+package com.example.libraryserver.security.token;
+
+import com.example.libraryserver.security.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying an access token in a <code>Authorization: Bearer</code> header.
+ * Requests with an invalid or expired token are rejected with status 401.
+ */
+public class AccessTokenAuthenticationFilter extends OncePerRequestFilter {
+
+  /** Matches requests with a bearer token. Browsers never send these on their own. */
+  public static final RequestMatcher BEARER_TOKEN_REQUEST = r -> token(r) != null;
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(AccessTokenAuthenticationFilter.class);
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final AccessTokenCodec accessTokenCodec;
+
+  public AccessTokenAuthenticationFilter(AccessTokenCodec accessTokenCodec) {
+    this.accessTokenCodec = accessTokenCodec;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String token = token(request);
+    if (token != null) {
+      try {
+        AuthenticatedUser user = accessTokenCodec.decode(token);
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new AccessTokenAuthentication(user, token));
+        SecurityContextHolder.setContext(securityContext);
+      } catch (AuthenticationException ex) {
+        LOGGER.debug("Rejected access token: {}", ex.getMessage());
+        SecurityContextHolder.clearContext();
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private static String token(HttpServletRequest request) {
+    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (authorization == null
+        || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+      return null;
+    }
+    return authorization.substring(BEARER_PREFIX.length()).trim();
+  }
+}
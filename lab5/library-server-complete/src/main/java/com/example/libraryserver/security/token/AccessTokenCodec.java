@@ -0,0 +1,175 @@
+package com.example.libraryserver.security.token;
+
+import com.example.libraryserver.security.AuthenticatedUser;
+import com.example.libraryserver.user.data.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Issues and verifies access tokens as JSON Web Tokens signed with RS256. A token carries all that
+ * is needed to rebuild the {@link AuthenticatedUser}, so verifying it needs no database access.
+ *
+ * <p>Tokens name their signing key in the <code>kid</code> header. To rotate keys, sign with a new
+ * key and keep the previous one for verification until its tokens have expired.
+ */
+public class AccessTokenCodec {
+
+  private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String signingKeyId;
+  private final PrivateKey signingKey;
+  private final Map<String, PublicKey> verificationKeys;
+  private final Duration timeToLive;
+  private final Clock clock;
+
+  /**
+   * @param signingKeyId identifier of the key new tokens are signed with
+   * @param signingKey the key new tokens are signed with
+   * @param verificationKeys keys accepted for verification by their identifier, including the
+   *     public key of the signing key
+   * @param timeToLive how long issued tokens are valid
+   * @param clock clock for issuing and expiring tokens
+   */
+  public AccessTokenCodec(
+      String signingKeyId,
+      PrivateKey signingKey,
+      Map<String, PublicKey> verificationKeys,
+      Duration timeToLive,
+      Clock clock) {
+    this.signingKeyId = signingKeyId;
+    this.signingKey = signingKey;
+    this.verificationKeys = new HashMap<>(verificationKeys);
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+  }
+
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  public String encode(AuthenticatedUser user) {
+    Instant now = clock.instant();
+
+    Map<String, Object> header = new LinkedHashMap<>();
+    header.put("alg", "RS256");
+    header.put("typ", "JWT");
+    header.put("kid", signingKeyId);
+
+    Map<String, Object> claims = new LinkedHashMap<>();
+    claims.put("sub", user.getIdentifier().toString());
+    claims.put("email", user.getEmail());
+    claims.put("given_name", user.getFirstName());
+    claims.put("family_name", user.getLastName());
+    claims.put("roles", new TreeSet<>(user.getRoles()));
+    claims.put("iat", now.getEpochSecond());
+    claims.put("exp", now.plus(timeToLive).getEpochSecond());
+
+    String content = toBase64Json(header) + "." + toBase64Json(claims);
+    try {
+      Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+      signature.initSign(signingKey);
+      signature.update(content.getBytes(StandardCharsets.US_ASCII));
+      return content + "." + ENCODER.encodeToString(signature.sign());
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Could not sign access token", ex);
+    }
+  }
+
+  /**
+   * @param token the access token
+   * @return the user the token has been issued for
+   * @throws BadCredentialsException if the token is malformed, not signed with a known key or
+   *     expired
+   */
+  public AuthenticatedUser decode(String token) {
+    int headerEnd = token.indexOf('.');
+    int contentEnd = token.lastIndexOf('.');
+    if (headerEnd < 0 || headerEnd == contentEnd) {
+      throw new BadCredentialsException("Malformed access token");
+    }
+
+    JsonNode header = fromBase64Json(token.substring(0, headerEnd));
+    PublicKey verificationKey = verificationKeys.get(header.path("kid").asText());
+    if (!"RS256".equals(header.path("alg").asText()) || verificationKey == null) {
+      throw new BadCredentialsException("Access token not signed with a known key");
+    }
+    if (!verify(
+        token.substring(0, contentEnd), token.substring(contentEnd + 1), verificationKey)) {
+      throw new BadCredentialsException("Invalid access token signature");
+    }
+
+    JsonNode claims = fromBase64Json(token.substring(headerEnd + 1, contentEnd));
+    if (clock.instant().getEpochSecond() >= claims.path("exp").asLong()) {
+      throw new BadCredentialsException("Access token expired");
+    }
+    Set<String> roles = new HashSet<>();
+    claims.path("roles").forEach(r -> roles.add(r.asText()));
+    try {
+      return new AuthenticatedUser(
+          new User(
+              UUID.fromString(claims.path("sub").asText()),
+              claims.path("given_name").asText(),
+              claims.path("family_name").asText(),
+              claims.path("email").asText(),
+              "",
+              roles));
+    } catch (IllegalArgumentException ex) {
+      throw new BadCredentialsException("Malformed access token", ex);
+    }
+  }
+
+  private static boolean verify(String content, String encodedSignature, PublicKey key) {
+    try {
+      Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+      signature.initVerify(key);
+      signature.update(content.getBytes(StandardCharsets.US_ASCII));
+      return signature.verify(DECODER.decode(encodedSignature));
+    } catch (GeneralSecurityException | IllegalArgumentException ex) {
+      return false;
+    }
+  }
+
+  private String toBase64Json(Map<String, Object> value) {
+    try {
+      return ENCODER.encodeToString(objectMapper.writeValueAsBytes(value));
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Could not write access token", ex);
+    }
+  }
+
+  private JsonNode fromBase64Json(String value) {
+    JsonNode node;
+    try {
+      node = objectMapper.readTree(DECODER.decode(value));
+    } catch (IOException | IllegalArgumentException ex) {
+      throw new BadCredentialsException("Malformed access token", ex);
+    }
+    if (node == null || !node.isObject()) {
+      throw new BadCredentialsException("Malformed access token");
+    }
+    return node;
+  }
+}
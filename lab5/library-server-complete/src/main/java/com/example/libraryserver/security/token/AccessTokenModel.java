@@ -0,0 +1,32 @@
+package com.example.libraryserver.security.token;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class AccessTokenModel {
+
+  @JsonProperty("access_token")
+  private final String accessToken;
+
+  @JsonProperty("token_type")
+  private final String tokenType = "Bearer";
+
+  @JsonProperty("expires_in")
+  private final long expiresIn;
+
+  public AccessTokenModel(String accessToken, long expiresIn) {
+    this.accessToken = accessToken;
+    this.expiresIn = expiresIn;
+  }
+
+  public String getAccessToken() {
+    return accessToken;
+  }
+
+  public String getTokenType() {
+    return tokenType;
+  }
+
+  public long getExpiresIn() {
+    return expiresIn;
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.libraryserver.security.token;
+
+import com.example.libraryserver.security.AuthenticatedUser;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/token")
+public class AccessTokenRestController {
+
+  private final AccessTokenCodec accessTokenCodec;
+
+  public AccessTokenRestController(AccessTokenCodec accessTokenCodec) {
+    this.accessTokenCodec = accessTokenCodec;
+  }
+
+  /** Issues an access token to a user authenticated by other means than an access token. */
+  @PostMapping
+  public ResponseEntity<AccessTokenModel> createToken(Authentication authentication) {
+    if (authentication instanceof AccessTokenAuthentication
+        || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(
+        new AccessTokenModel(
+            accessTokenCodec.encode((AuthenticatedUser) authentication.getPrincipal()),
+            accessTokenCodec.getTimeToLive().getSeconds()));
+  }
+}
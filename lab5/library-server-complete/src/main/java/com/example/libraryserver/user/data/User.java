@@ -1,8 +1,14 @@
 package com.example.libraryserver.user.data;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.jpa.domain.AbstractPersistable;
 
+import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -14,9 +20,13 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User extends AbstractPersistable<Long> {
 
-  @NotNull private UUID identifier;
+  @Column(unique = true)
+  @NotNull
+  private UUID identifier;
 
   @NotNull
   @Size(min = 1, max = 50)
@@ -26,13 +36,22 @@ public class User extends AbstractPersistable<Long> {
   @Size(min = 1, max = 50)
   private String lastName;
 
-  @Email private String email;
+  /**
+   * Users are authenticated by their email, so it is the natural id resolved through the natural id
+   * cache. Being a natural id, the email gets a unique constraint: saving a user with the email of
+   * another user fails.
+   */
+  @NaturalId(mutable = true)
+  @Email
+  private String email;
 
   @JsonIgnore
   @NotNull
   @Size(min = 1, max = 200)
   private String password;
 
+  @BatchSize(size = 100)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @ElementCollection(fetch = FetchType.EAGER)
   private Set<String> roles = new HashSet<>();
 
@@ -0,0 +1,9 @@
+package com.example.libraryserver.user.data;
+
+import java.util.Optional;
+
+/** Looks users up by their natural id, so the natural id cache is used when it is enabled. */
+public interface UserNaturalIdRepository {
+
+  Optional<User> findOneByEmail(String email);
+}
@@ -0,0 +1,38 @@
+package com.example.libraryserver.user.data;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+
+/**
+ * Resolves the email through the natural id cache if the second level cache is enabled. Otherwise
+ * the user is loaded with its roles in a single query, as resolving the natural id first would
+ * need an extra query.
+ */
+@Transactional(readOnly = true)
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+  private final EntityManager entityManager;
+
+  public UserNaturalIdRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public Optional<User> findOneByEmail(String email) {
+    Session session = entityManager.unwrap(Session.class);
+    if (session.getSessionFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+      return session.bySimpleNaturalId(User.class).loadOptional(email);
+    }
+    return entityManager
+        .createQuery(
+            "select distinct u from User u left join fetch u.roles where u.email = :email",
+            User.class)
+        .setParameter("email", email)
+        .getResultList()
+        .stream()
+        .findFirst();
+  }
+}
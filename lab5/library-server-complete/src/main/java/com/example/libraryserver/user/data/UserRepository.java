@@ -1,13 +1,31 @@
 package com.example.libraryserver.user.data;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
+
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Optional<User> findOneByIdentifier(UUID identifier);
 
-  Optional<User> findOneByEmail(String email);
+  List<User> findAllByEmailIn(Collection<String> emails);
+
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select u from User u left join fetch u.roles order by u.id")
+  Stream<User> streamAll();
 }
@@ -0,0 +1,27 @@
+package com.example.libraryserver.user.service;
+
+/** Replacement of a user's password hash by a hash of the same password with a newer encoding. */
+public class PasswordUpgrade {
+
+  private final String email;
+  private final String oldPassword;
+  private final String newPassword;
+
+  public PasswordUpgrade(String email, String oldPassword, String newPassword) {
+    this.email = email;
+    this.oldPassword = oldPassword;
+    this.newPassword = newPassword;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public String getOldPassword() {
+    return oldPassword;
+  }
+
+  public String getNewPassword() {
+    return newPassword;
+  }
+}
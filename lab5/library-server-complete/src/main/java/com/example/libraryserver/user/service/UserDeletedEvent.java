@@ -0,0 +1,23 @@
+package com.example.libraryserver.user.service;
+
+import java.util.UUID;
+
+/** Published by the {@link UserService} when a user has been deleted. */
+public class UserDeletedEvent {
+
+  private final UUID identifier;
+  private final String email;
+
+  public UserDeletedEvent(UUID identifier, String email) {
+    this.identifier = identifier;
+    this.email = email;
+  }
+
+  public UUID getIdentifier() {
+    return identifier;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+}
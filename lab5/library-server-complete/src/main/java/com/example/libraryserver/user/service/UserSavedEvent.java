@@ -0,0 +1,25 @@
+package com.example.libraryserver.user.service;
+
+import com.example.libraryserver.user.data.User;
+
+import java.util.UUID;
+
+/** Published by the {@link UserService} when a user has been created or updated. */
+public class UserSavedEvent {
+
+  private final UUID identifier;
+  private final String email;
+
+  public UserSavedEvent(User user) {
+    this.identifier = user.getIdentifier();
+    this.email = user.getEmail();
+  }
+
+  public UUID getIdentifier() {
+    return identifier;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+}
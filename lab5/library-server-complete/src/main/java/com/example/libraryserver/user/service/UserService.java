@@ -5,14 +5,22 @@ import com.example.libraryserver.user.data.UserRepository;
 import org.owasp.security.logging.SecurityMarkers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.IdGenerator;
 
+import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -22,10 +30,18 @@ public class UserService {
 
   private final UserRepository userRepository;
   private final IdGenerator idGenerator;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public UserService(UserRepository userRepository, IdGenerator idGenerator) {
+  public UserService(
+      UserRepository userRepository,
+      IdGenerator idGenerator,
+      EntityManager entityManager,
+      ApplicationEventPublisher eventPublisher) {
     this.userRepository = userRepository;
     this.idGenerator = idGenerator;
+    this.entityManager = entityManager;
+    this.eventPublisher = eventPublisher;
   }
 
   @PreAuthorize("hasRole('LIBRARY_ADMIN')")
@@ -44,6 +60,23 @@ public class UserService {
     return userRepository.findAll();
   }
 
+  /**
+   * Passes all users to the given consumer one at a time. Each user is detached after it has been
+   * consumed, so the persistence context does not grow with the number of users.
+   */
+  @PreAuthorize("hasRole('LIBRARY_ADMIN')")
+  public void findAll(Consumer<User> userConsumer) {
+    LOGGER.trace("stream all users");
+
+    try (Stream<User> users = userRepository.streamAll()) {
+      users.forEach(
+          u -> {
+            userConsumer.accept(u);
+            entityManager.detach(u);
+          });
+    }
+  }
+
   @PreAuthorize("hasRole('LIBRARY_ADMIN')")
   @Transactional
   public User save(User user) {
@@ -54,7 +87,35 @@ public class UserService {
     if (user.getIdentifier() == null) {
       user.setIdentifier(idGenerator.generateId());
     }
-    return userRepository.save(user);
+    User savedUser = userRepository.save(user);
+    eventPublisher.publishEvent(new UserSavedEvent(savedUser));
+    return savedUser;
+  }
+
+  /**
+   * Replaces password hashes with newer encodings of the same password. A user is only updated if
+   * the stored hash is still the old one, so applying an upgrade again has no effect. This is not
+   * restricted to administrators, as it runs on behalf of users who have just logged in.
+   *
+   * @param upgrades the upgrades, at most one per user
+   * @return the number of updated users
+   */
+  @Transactional
+  public int upgradePasswords(Collection<PasswordUpgrade> upgrades) {
+    LOGGER.trace("upgrade passwords of {} users", upgrades.size());
+
+    Map<String, PasswordUpgrade> upgradesByEmail =
+        upgrades.stream().collect(Collectors.toMap(PasswordUpgrade::getEmail, Function.identity()));
+    int upgraded = 0;
+    for (User user : userRepository.findAllByEmailIn(upgradesByEmail.keySet())) {
+      PasswordUpgrade upgrade = upgradesByEmail.get(user.getEmail());
+      if (upgrade.getOldPassword().equals(user.getPassword())) {
+        user.setPassword(upgrade.getNewPassword());
+        eventPublisher.publishEvent(new UserSavedEvent(user));
+        upgraded++;
+      }
+    }
+    return upgraded;
   }
 
   @PreAuthorize("hasRole('LIBRARY_ADMIN')")
@@ -67,6 +128,7 @@ public class UserService {
         .map(
             u -> {
               userRepository.delete(u);
+              eventPublisher.publishEvent(new UserDeletedEvent(userIdentifier, u.getEmail()));
               return true;
             })
         .orElse(false);
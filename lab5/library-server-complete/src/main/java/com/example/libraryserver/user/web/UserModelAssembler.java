@@ -1,20 +1,25 @@
 package com.example.libraryserver.user.web;
 
+import com.example.libraryserver.common.web.HtmlJavaScriptEncoder;
+import com.example.libraryserver.common.web.IdentifierLinkTemplate;
 import com.example.libraryserver.user.data.User;
-import org.owasp.encoder.Encode;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.mvc.RepresentationModelAssemblerSupport;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Component
 public class UserModelAssembler extends RepresentationModelAssemblerSupport<User, UserModel> {
 
+  private static final IdentifierLinkTemplate SELF_LINK =
+      new IdentifierLinkTemplate(
+          IanaLinkRelations.SELF, id -> methodOn(UserRestController.class).getSingleUser(id));
+
   public UserModelAssembler() {
     super(UserRestController.class, UserModel.class);
   }
@@ -29,9 +34,7 @@ public class UserModelAssembler extends RepresentationModelAssemblerSupport<User
                 user.getLastName(),
                 user.getEmail(),
                 user.getRoles()));
-    userModel.add(
-        linkTo(methodOn(UserRestController.class).getSingleUser(userModel.getIdentifier()))
-            .withSelfRel());
+    userModel.add(SELF_LINK.expand(userModel.getIdentifier()));
 
     return userModel;
   }
@@ -50,12 +53,12 @@ public class UserModelAssembler extends RepresentationModelAssemblerSupport<User
 
   private UserModel outputEscaping(UserModel input) {
     UserModel output = new UserModel();
-    output.setEmail(Encode.forJavaScript(Encode.forHtml(input.getEmail())));
-    output.setFirstName(Encode.forJavaScript(Encode.forHtml(input.getFirstName())));
-    output.setLastName(Encode.forJavaScript(Encode.forHtml(input.getLastName())));
+    output.setEmail(HtmlJavaScriptEncoder.encode(input.getEmail()));
+    output.setFirstName(HtmlJavaScriptEncoder.encode(input.getFirstName()));
+    output.setLastName(HtmlJavaScriptEncoder.encode(input.getLastName()));
     output.setIdentifier(input.getIdentifier());
     for (String role : input.getRoles()) {
-      output.getRoles().add(Encode.forJavaScript(Encode.forHtml(role)));
+      output.getRoles().add(HtmlJavaScriptEncoder.encode(role));
     }
 
     return output;
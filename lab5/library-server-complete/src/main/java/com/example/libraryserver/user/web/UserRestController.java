@@ -1,9 +1,9 @@
 package com.example.libraryserver.user.web;
 
+import com.example.libraryserver.common.web.HalCollectionWriter;
 import com.example.libraryserver.user.data.User;
 import com.example.libraryserver.user.service.PasswordValidationService;
 import com.example.libraryserver.user.service.UserService;
-import org.springframework.hateoas.CollectionModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,13 +17,14 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.util.UUID;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
-import static org.springframework.http.HttpStatus.OK;
 
 @RestController
 @RequestMapping("/users")
@@ -32,14 +33,17 @@ public class UserRestController {
   private final UserService userService;
   private final PasswordValidationService passwordValidationService;
   private final UserModelAssembler userModelAssembler;
+  private final HalCollectionWriter halCollectionWriter;
 
   public UserRestController(
       UserService userService,
       PasswordValidationService passwordValidationService,
-      UserModelAssembler userModelAssembler) {
+      UserModelAssembler userModelAssembler,
+      HalCollectionWriter halCollectionWriter) {
     this.userService = userService;
     this.passwordValidationService = passwordValidationService;
     this.userModelAssembler = userModelAssembler;
+    this.halCollectionWriter = halCollectionWriter;
   }
 
   @PostMapping
@@ -88,13 +92,14 @@ public class UserRestController {
         .orElse(ResponseEntity.notFound().build());
   }
 
-  @ResponseStatus(OK)
   @GetMapping
-  public CollectionModel<UserModel> listAllUsers() {
-    CollectionModel<UserModel> userListModel =
-        userModelAssembler.toCollectionModel(userService.findAll());
-    userListModel.add(linkTo(UserRestController.class).withSelfRel());
-    return userListModel;
+  public void listAllUsers(HttpServletResponse response) throws IOException {
+    halCollectionWriter.write(
+        response,
+        "users",
+        userService::findAll,
+        userModelAssembler::toModel,
+        linkTo(UserRestController.class).withSelfRel());
   }
 
   @GetMapping("/{userIdentifier}")
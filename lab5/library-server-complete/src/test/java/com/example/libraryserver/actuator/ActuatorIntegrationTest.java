@@ -15,6 +15,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
@@ -68,7 +69,9 @@ class ActuatorIntegrationTest {
 
       mvc.perform(get("/actuator/info"))
           .andExpect(status().isOk())
-          .andExpect(jsonPath("$.application.name").value("library-server"));
+          .andExpect(jsonPath("$.application.name").value("library-server"))
+          .andExpect(jsonPath("$.passwordHashing.algorithm").value("bcrypt"))
+          .andExpect(jsonPath("$.passwordHashing.strength").value(greaterThanOrEqualTo(10)));
     }
 
     @Test
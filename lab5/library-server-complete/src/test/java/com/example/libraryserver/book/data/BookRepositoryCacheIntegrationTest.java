@@ -0,0 +1,100 @@
+package com.example.libraryserver.book.data;
+
+import com.example.libraryserver.DataInitializer;
+import com.example.libraryserver.user.data.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = MOCK)
+@DirtiesContext
+@ActiveProfiles({"test", "cache"})
+@DisplayName("Second level cache")
+class BookRepositoryCacheIntegrationTest {
+
+  @Autowired private WebApplicationContext context;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setup() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  @DisplayName("serves repeated reads of a book from the cache")
+  void findOneByIdentifierIsCached() {
+    bookRepository.findOneByIdentifier(DataInitializer.BOOK_DEVOPS_IDENTIFIER);
+    long statements = statistics.getPrepareStatementCount();
+
+    assertThat(bookRepository.findOneByIdentifier(DataInitializer.BOOK_DEVOPS_IDENTIFIER))
+        .isPresent();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThan(0);
+    assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+  }
+
+  @Test
+  @DisplayName("serves repeated reads of a user by email from the cache")
+  void findOneByEmailIsCached() {
+    userRepository.findOneByEmail("bruce.wayne@example.com");
+    long statements = statistics.getPrepareStatementCount();
+
+    assertThat(userRepository.findOneByEmail("bruce.wayne@example.com")).isPresent();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThan(0);
+  }
+
+  @Test
+  @DisplayName("returns the updated book after it has been saved")
+  void saveInvalidatesCache() {
+    Book book =
+        bookRepository.findOneByIdentifier(DataInitializer.BOOK_SPRING_ACTION_IDENTIFIER).get();
+    book.setTitle("Spring in Action: Covers Spring 5");
+    bookRepository.save(book);
+
+    assertThat(
+            bookRepository
+                .findOneByIdentifier(DataInitializer.BOOK_SPRING_ACTION_IDENTIFIER)
+                .map(Book::getTitle))
+        .hasValue("Spring in Action: Covers Spring 5");
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {"hibernate.second.level.cache.requests", "cache.gets", "cache.evictions"})
+  @DisplayName("exposes cache metrics via actuator")
+  void cacheMetrics(String metric) throws Exception {
+    MockMvc mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    mvc.perform(
+            get("/actuator/metrics/" + metric).with(user("user").roles("LIBRARY_ACTUATOR")))
+        .andExpect(status().isOk());
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.libraryserver.book.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Book search index")
+class BookSearchIndexTest {
+
+  private static final UUID CLEAN_CODE = UUID.randomUUID();
+  private static final UUID CLEAN_ARCHITECTURE = UUID.randomUUID();
+  private static final UUID REFACTORING = UUID.randomUUID();
+
+  private BookSearchIndex cut;
+
+  @BeforeEach
+  void setup() {
+    cut = new BookSearchIndex();
+    cut.index(
+        CLEAN_CODE,
+        "Clean Code",
+        "A Handbook of Agile Software Craftsmanship",
+        Collections.singleton("Robert C. Martin"));
+    cut.index(
+        CLEAN_ARCHITECTURE,
+        "Clean Architecture",
+        "A Craftsman's Guide to Software Structure and Design",
+        Collections.singleton("Robert C. Martin"));
+    cut.index(
+        REFACTORING,
+        "Refactoring",
+        "Improving the design of existing code",
+        Arrays.asList("Martin Fowler", "Kent Beck"));
+  }
+
+  @DisplayName("ranks title matches before description matches")
+  @Test
+  void ranking() {
+    BookSearchResult result = cut.search("code", 0, 10);
+    assertThat(result.getIdentifiers()).containsExactly(CLEAN_CODE, REFACTORING);
+    assertThat(result.getTotal()).isEqualTo(2);
+  }
+
+  @DisplayName("ignores case and punctuation")
+  @Test
+  void tokenizing() {
+    assertThat(cut.search("KENT-beck!", 0, 10).getIdentifiers()).containsExactly(REFACTORING);
+  }
+
+  @DisplayName("pages through the results")
+  @Test
+  void paging() {
+    BookSearchResult firstPage = cut.search("martin", 0, 2);
+    BookSearchResult secondPage = cut.search("martin", 1, 2);
+    assertThat(firstPage.getIdentifiers()).hasSize(2);
+    assertThat(secondPage.getIdentifiers()).hasSize(1);
+    assertThat(firstPage.getIdentifiers()).doesNotContainAnyElementsOf(secondPage.getIdentifiers());
+    assertThat(secondPage.getTotal()).isEqualTo(3);
+  }
+
+  @DisplayName("replaces the terms of an updated book")
+  @Test
+  void update() {
+    cut.index(REFACTORING, "Refactoring", "Second edition", Collections.singleton("Martin Fowler"));
+    assertThat(cut.search("beck", 0, 10).getIdentifiers()).isEmpty();
+    assertThat(cut.search("edition", 0, 10).getIdentifiers()).containsExactly(REFACTORING);
+    assertThat(cut.documentCount()).isEqualTo(3);
+  }
+
+  @DisplayName("does not find removed books")
+  @Test
+  void remove() {
+    cut.remove(CLEAN_CODE);
+    assertThat(cut.search("clean", 0, 10).getIdentifiers()).containsExactly(CLEAN_ARCHITECTURE);
+    assertThat(cut.documentCount()).isEqualTo(2);
+  }
+
+  @DisplayName("keeps ranking after many updates of a book")
+  @Test
+  void manyUpdates() {
+    for (int i = 0; i < 500; i++) {
+      cut.index(
+          CLEAN_CODE,
+          "Clean Code",
+          "A Handbook of Agile Software Craftsmanship, revision " + i,
+          Collections.singleton("Robert C. Martin"));
+    }
+    assertThat(cut.search("code", 0, 10).getIdentifiers()).containsExactly(CLEAN_CODE, REFACTORING);
+    assertThat(cut.search("revision 499", 0, 10).getIdentifiers()).containsExactly(CLEAN_CODE);
+    assertThat(cut.search("398", 0, 10).getIdentifiers()).isEmpty();
+    assertThat(cut.termCount()).isLessThan(100);
+    assertThat(cut.documentCount()).isEqualTo(3);
+  }
+
+  @DisplayName("finds nothing for a blank query")
+  @Test
+  void blankQuery() {
+    BookSearchResult result = cut.search(" - ", 0, 10);
+    assertThat(result.getIdentifiers()).isEmpty();
+    assertThat(result.getTotal()).isZero();
+  }
+}
@@ -0,0 +1,102 @@
+package com.example.libraryserver.book.search;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.book.service.BookDeletedEvent;
+import com.example.libraryserver.book.service.BookSavedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@DisplayName("Book search indexer")
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexerTest {
+
+  private static final UUID CLEAN_CODE = UUID.randomUUID();
+  private static final UUID REFACTORING = UUID.randomUUID();
+
+  @Mock private BookRepository bookRepository;
+  @Mock private EntityManager entityManager;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private BookSearchIndexer cut;
+
+  @BeforeEach
+  void setup() {
+    cut =
+        new BookSearchIndexer(
+            bookRepository, entityManager, transactionManager, new SimpleMeterRegistry());
+  }
+
+  @DisplayName("replays changes committed during a rebuild over the rows read by it")
+  @Test
+  void changesDuringRebuild() {
+    Book staleCleanCode =
+        new Book(
+            CLEAN_CODE,
+            "9780132350884",
+            "Clean Code",
+            "A Handbook",
+            Collections.singleton("Robert C. Martin"));
+    Book updatedCleanCode =
+        new Book(
+            CLEAN_CODE,
+            "9780132350884",
+            "Clean Code",
+            "Second edition",
+            Collections.singleton("Robert C. Martin"));
+    Book refactoring =
+        new Book(
+            REFACTORING,
+            "9780134757599",
+            "Refactoring",
+            "Improving the design",
+            Collections.singleton("Martin Fowler"));
+    given(bookRepository.streamAll())
+        .willAnswer(
+            i -> {
+              // committed after the rebuild started, but before its stream returns the rows
+              cut.onBookSaved(new BookSavedEvent(updatedCleanCode));
+              cut.onBookDeleted(new BookDeletedEvent(REFACTORING));
+              return Stream.of(staleCleanCode, refactoring);
+            });
+
+    cut.rebuild();
+
+    assertThat(cut.search("edition", 0, 10).getIdentifiers()).containsExactly(CLEAN_CODE);
+    assertThat(cut.search("handbook", 0, 10).getIdentifiers()).isEmpty();
+    assertThat(cut.search("refactoring", 0, 10).getIdentifiers()).isEmpty();
+    assertThat(cut.documentCount()).isEqualTo(1);
+  }
+
+  @DisplayName("applies changes after a rebuild to the new index")
+  @Test
+  void changesAfterRebuild() {
+    given(bookRepository.streamAll()).willReturn(Stream.empty());
+    cut.rebuild();
+
+    cut.onBookSaved(
+        new BookSavedEvent(
+            new Book(
+                REFACTORING,
+                "9780134757599",
+                "Refactoring",
+                "Improving the design",
+                Collections.singleton("Martin Fowler"))));
+
+    assertThat(cut.search("refactoring", 0, 10).getIdentifiers()).containsExactly(REFACTORING);
+  }
+}
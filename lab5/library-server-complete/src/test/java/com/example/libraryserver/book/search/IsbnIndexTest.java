@@ -0,0 +1,85 @@
+package com.example.libraryserver.book.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ISBN index")
+class IsbnIndexTest {
+
+  private final IsbnIndex cut = new IsbnIndex();
+
+  @DisplayName("converts 13 digits into a key")
+  @Test
+  void toKey() {
+    assertThat(IsbnIndex.toKey("9780132350884")).isEqualTo(9780132350884L);
+    assertThat(IsbnIndex.toKey("0000000000000")).isZero();
+    assertThat(IsbnIndex.toKey("978013235088")).isNegative();
+    assertThat(IsbnIndex.toKey("978013235088x")).isNegative();
+    assertThat(IsbnIndex.toKey("-978013235088")).isNegative();
+    assertThat(IsbnIndex.toKey(null)).isNegative();
+  }
+
+  @DisplayName("finds, replaces and removes identifiers")
+  @Test
+  void putGetRemove() {
+    UUID identifier = UUID.randomUUID();
+    UUID otherIdentifier = UUID.randomUUID();
+    long isbn = IsbnIndex.toKey("9780132350884");
+
+    assertThat(cut.get(isbn)).isNull();
+    cut.put(isbn, identifier);
+    assertThat(cut.get(isbn)).isEqualTo(identifier);
+    cut.put(isbn, otherIdentifier);
+    assertThat(cut.get(isbn)).isEqualTo(otherIdentifier);
+    assertThat(cut.size()).isEqualTo(1);
+
+    cut.remove(identifier);
+    assertThat(cut.get(isbn)).isEqualTo(otherIdentifier);
+    cut.remove(otherIdentifier);
+    assertThat(cut.get(isbn)).isNull();
+    assertThat(cut.size()).isZero();
+  }
+
+  @DisplayName("removes the previous ISBN of a book")
+  @Test
+  void changeIsbn() {
+    UUID identifier = UUID.randomUUID();
+    long isbn = IsbnIndex.toKey("9780132350884");
+    long changedIsbn = IsbnIndex.toKey("9780201485677");
+
+    cut.put(isbn, identifier);
+    cut.put(changedIsbn, identifier);
+    assertThat(cut.get(isbn)).isNull();
+    assertThat(cut.get(changedIsbn)).isEqualTo(identifier);
+    assertThat(cut.size()).isEqualTo(1);
+
+    cut.remove(identifier);
+    assertThat(cut.get(changedIsbn)).isNull();
+    assertThat(cut.size()).isZero();
+  }
+
+  @DisplayName("keeps all entries when growing and removing")
+  @Test
+  void growAndRemove() {
+    List<UUID> identifiers = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      identifiers.add(UUID.randomUUID());
+      cut.put(9780000000000L + i * 7L, identifiers.get(i));
+    }
+    for (int i = 0; i < 10_000; i += 2) {
+      cut.remove(identifiers.get(i));
+    }
+
+    assertThat(cut.size()).isEqualTo(5_000);
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(cut.get(9780000000000L + i * 7L))
+          .isEqualTo(i % 2 == 0 ? null : identifiers.get(i));
+    }
+  }
+}
@@ -2,7 +2,10 @@ package com.example.libraryserver.book.service;
 
 import com.example.libraryserver.book.data.Book;
 import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.book.search.BookSearchIndexer;
+import com.example.libraryserver.book.search.IsbnIndexer;
 import com.example.libraryserver.config.IdGeneratorConfiguration;
+import com.example.libraryserver.config.MethodSecurityConfiguration;
 import com.example.libraryserver.security.AuthenticatedUser;
 import com.example.libraryserver.user.data.User;
 import com.example.libraryserver.user.data.UserRepository;
@@ -18,16 +21,18 @@ import org.springframework.context.annotation.Import;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+import javax.persistence.EntityManager;
 import java.util.Collections;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
 
 @DisplayName("Book service")
 @SpringJUnitConfig(classes = BookServiceAuthorizationIntegrationTest.BookServiceConfig.class)
@@ -36,6 +41,9 @@ class BookServiceAuthorizationIntegrationTest {
   @Autowired private BookService cut;
   @MockBean private BookRepository bookRepository;
   @MockBean private UserRepository userRepository;
+  @MockBean private EntityManager entityManager;
+  @MockBean private BookSearchIndexer bookSearchIndexer;
+  @MockBean private IsbnIndexer isbnIndexer;
 
   private AuthenticatedUser getPrincipal() {
     return (AuthenticatedUser)
@@ -66,8 +74,7 @@ class BookServiceAuthorizationIntegrationTest {
   }
 
   @TestConfiguration
-  @EnableGlobalMethodSecurity(prePostEnabled = true)
-  @Import({BookService.class, IdGeneratorConfiguration.class})
+  @Import({BookService.class, IdGeneratorConfiguration.class, MethodSecurityConfiguration.class})
   static class BookServiceConfig {}
 
   @DisplayName("is authorized for")
@@ -81,16 +88,29 @@ class BookServiceAuthorizationIntegrationTest {
       cut.findOneByIdentifier(UUID.randomUUID());
     }
 
+    @DisplayName("finding book by isbn")
+    @Test
+    void findOneByIsbn() {
+      cut.findOneByIsbn("9780132350884");
+    }
+
     @DisplayName("finding all books")
     @Test
     void findAll() {
       cut.findAll();
     }
 
+    @DisplayName("exporting all books")
+    @Test
+    void exportAll() {
+      cut.exportAll(b -> {});
+    }
+
     @DisplayName("saving a book")
     @WithMockUser(roles = "LIBRARY_CURATOR")
     @Test
     void verifySave() {
+      given(bookRepository.save(any(Book.class))).willAnswer(i -> i.getArgument(0));
       cut.save(new Book("1234567890", "title", "desc", Collections.singleton("author")));
     }
 
@@ -0,0 +1,124 @@
+package com.example.libraryserver.book.service;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.security.AuthenticatedUser;
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.data.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = MOCK)
+@DirtiesContext
+@ActiveProfiles("test")
+@DisplayName("Borrowing a book concurrently")
+class BookServiceConcurrencyIntegrationTest {
+
+  private static final int BORROWERS = 16;
+
+  @Autowired private BookService cut;
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+
+  private enum Outcome {
+    BORROWED,
+    CONFLICT
+  }
+
+  private Outcome borrow(UUID bookIdentifier, AuthenticatedUser borrower) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(
+                borrower, "secret", borrower.getAuthorities()));
+    try {
+      return cut.borrowForUser(bookIdentifier, borrower.getIdentifier(), borrower)
+          .map(b -> Outcome.BORROWED)
+          .orElseThrow(() -> new IllegalStateException("Book or user not found"));
+    } catch (BorrowingConflictError ex) {
+      return Outcome.CONFLICT;
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  @Test
+  @DisplayName("lets exactly one user win")
+  void exactlyOneWinner() throws Exception {
+    Book book =
+        bookRepository.save(
+            new Book(
+                UUID.randomUUID(),
+                "9780134685991",
+                "Effective Java",
+                "The definitive guide to Java platform best practices",
+                Collections.singleton("Joshua Bloch")));
+    List<AuthenticatedUser> borrowers = new ArrayList<>();
+    for (int i = 0; i < BORROWERS; i++) {
+      borrowers.add(
+          new AuthenticatedUser(
+              userRepository.save(
+                  new User(
+                      UUID.randomUUID(),
+                      "Hans",
+                      "Test" + i,
+                      "borrower" + i + "@example.com",
+                      "secret",
+                      Collections.singleton("LIBRARY_USER")))));
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(BORROWERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Outcome>> outcomes = new ArrayList<>();
+    try {
+      for (AuthenticatedUser borrower : borrowers) {
+        outcomes.add(
+            executorService.submit(
+                () -> {
+                  start.await();
+                  return borrow(book.getIdentifier(), borrower);
+                }));
+      }
+      start.countDown();
+      List<UUID> winners = new ArrayList<>();
+      int conflicts = 0;
+      for (int i = 0; i < BORROWERS; i++) {
+        if (outcomes.get(i).get(30, TimeUnit.SECONDS) == Outcome.BORROWED) {
+          winners.add(borrowers.get(i).getIdentifier());
+        } else {
+          conflicts++;
+        }
+      }
+
+      assertThat(winners).hasSize(1);
+      assertThat(conflicts).isEqualTo(BORROWERS - 1);
+
+      Book borrowedBook = bookRepository.findOneByIdentifier(book.getIdentifier()).get();
+      assertThat(borrowedBook.getBorrowedByUser().getIdentifier()).isEqualTo(winners.get(0));
+      assertThat(borrowedBook.getVersion()).isEqualTo(book.getVersion() + 1);
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.libraryserver.book.service;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.book.search.BookSearchIndexer;
+import com.example.libraryserver.book.search.IsbnIndexer;
+import com.example.libraryserver.security.AuthenticatedUser;
+import com.example.libraryserver.security.method.RoleCheckAttribute;
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.data.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Verifies the method security checks of the book service in isolation, as the repositories are
+ * mocked.
+ */
+@DisplayName("Book service method security")
+@SpringJUnitConfig(classes = BookServiceAuthorizationIntegrationTest.BookServiceConfig.class)
+class BookServiceMethodSecurityIntegrationTest {
+
+  @Autowired private BookService cut;
+  @Autowired private MethodSecurityMetadataSource methodSecurityMetadataSource;
+  @MockBean private BookRepository bookRepository;
+  @MockBean private UserRepository userRepository;
+  @MockBean private EntityManager entityManager;
+  @MockBean private BookSearchIndexer bookSearchIndexer;
+  @MockBean private IsbnIndexer isbnIndexer;
+
+  private AuthenticatedUser user;
+
+  @BeforeEach
+  void createAuthenticationContext() {
+    user =
+        new AuthenticatedUser(
+            new User(
+                UUID.randomUUID(),
+                "Hans",
+                "Test",
+                "test@example.com",
+                "secret",
+                Collections.singleton("LIBRARY_USER")));
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  @DisplayName("compiles the simple expressions")
+  void compilesSimpleExpressions() throws NoSuchMethodException {
+    assertThat(
+            methodSecurityMetadataSource.getAttributes(
+                BookService.class.getMethod("findOneByIdentifier", UUID.class), BookService.class))
+        .hasAtLeastOneElementOfType(RoleCheckAttribute.class);
+    assertThat(
+            methodSecurityMetadataSource.getAttributes(
+                BookService.class.getMethod("save", Book.class), BookService.class))
+        .hasAtLeastOneElementOfType(RoleCheckAttribute.class);
+  }
+
+  @Test
+  @DisplayName("evaluates authentication check for finding a book")
+  void evaluateAuthenticationCheck() {
+    UUID bookIdentifier = UUID.randomUUID();
+
+    assertThat(cut.findOneByIdentifier(bookIdentifier)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("evaluates role check for returning a book")
+  void evaluateRoleCheck() {
+    // another user's identifier returns before any repository access
+    UUID otherUserIdentifier = UUID.randomUUID();
+    UUID bookIdentifier = UUID.randomUUID();
+
+    assertThat(cut.returnForUser(bookIdentifier, otherUserIdentifier, user)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("denies finding a book without authentication")
+  void denyAuthenticationCheck() {
+    SecurityContextHolder.clearContext();
+
+    assertThatExceptionOfType(AuthenticationCredentialsNotFoundException.class)
+        .isThrownBy(() -> cut.findOneByIdentifier(UUID.randomUUID()));
+  }
+
+  @Test
+  @DisplayName("denies saving a book without the curator role")
+  void denyRoleCheck() {
+    assertThatExceptionOfType(AccessDeniedException.class)
+        .isThrownBy(
+            () ->
+                cut.save(
+                    new Book(
+                        "9780132350884",
+                        "Clean Code",
+                        "A Handbook of Agile Software Craftsmanship",
+                        Collections.singleton("Robert C. Martin"))));
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.libraryserver.book.web;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Book export writer")
+class BookExportWriterTest {
+
+  private final BookService bookService = mock(BookService.class);
+  private final BookExportWriter cut = new BookExportWriter(bookService, new ObjectMapper());
+
+  @DisplayName("quotes authors containing the author separator in CSV")
+  @Test
+  void csvAuthors() throws Exception {
+    UUID identifier = UUID.randomUUID();
+    Book book =
+        new Book(
+            identifier,
+            "9780132350884",
+            "Clean Code",
+            "Agile Software Craftsmanship",
+            new LinkedHashSet<>(Arrays.asList("Martin; Robert", "Fowler", "Beck;")));
+    willAnswer(
+            i -> {
+              i.<Consumer<Book>>getArgument(0).accept(book);
+              return null;
+            })
+        .given(bookService)
+        .exportAll(any());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    cut.writeCsv(outputStream);
+
+    assertThat(outputStream.toString(StandardCharsets.UTF_8.name()))
+        .isEqualTo(
+            "identifier,isbn,title,description,authors\n"
+                + identifier
+                + ",\"9780132350884\",\"Clean Code\",\"Agile Software Craftsmanship\","
+                + "\"\"\"Martin; Robert\"\";Fowler;\"\"Beck;\"\"\"\n");
+  }
+}
@@ -0,0 +1,136 @@
+package com.example.libraryserver.book.web;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.service.BookOutputEscaping;
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.web.UserModelAssembler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.owasp.encoder.Encode;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Book model assembler")
+class BookModelAssemblerTest {
+
+  private final UserModelAssembler userModelAssembler = spy(new UserModelAssembler());
+  private final BookModelAssembler cut = new BookModelAssembler(userModelAssembler);
+
+  @BeforeEach
+  void setup() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private static User user(String lastName) {
+    return new User(
+        UUID.randomUUID(),
+        "Hans",
+        lastName,
+        lastName + "@example.com",
+        "secret",
+        Collections.singleton("LIBRARY_USER"));
+  }
+
+  private static Book book(int index, User borrower) {
+    return new Book(
+        UUID.randomUUID(),
+        String.format("%013d", index),
+        "title " + index,
+        "description " + index,
+        Collections.singleton("author " + index),
+        borrower);
+  }
+
+  @DisplayName("assembles each borrower only once for a collection of books")
+  @Test
+  void borrowerAssembledOnce() {
+    User wayne = user("wayne");
+    User banner = user("banner");
+    List<Book> books = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      books.add(book(i, i % 2 == 0 ? wayne : banner));
+    }
+    books.add(book(50, null));
+
+    List<BookModel> bookModels =
+        new ArrayList<>(((BookModelList) cut.toCollectionModel(books)).getBooks());
+
+    verify(userModelAssembler, times(2)).toModel(any(User.class));
+    assertThat(bookModels).hasSize(51);
+    assertThat(bookModels.get(0).getBorrowedByUser())
+        .isSameAs(bookModels.get(48).getBorrowedByUser());
+    assertThat(bookModels.get(1).getBorrowedByUser().getLastName()).isEqualTo("banner");
+    assertThat(bookModels.get(50).getBorrowedByUser()).isNull();
+    assertThat(bookModels.get(0).getBorrowedByUser().getIdentifier())
+        .isEqualTo(wayne.getIdentifier());
+  }
+
+  @DisplayName("serves the escaped fields saved with the book identical to the OWASP encoder")
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "<script>alert('Clean & \"Code\"')</script>",
+        "Line one\nline two\r\u2028\u2029 / \\ `${x}` -->",
+        "\u00e4\u00f6\u00fc \ud83d\udcda \u0000\u0007\u007f\u0085 \ufffe",
+        "Robert C. Martin",
+        "Spider-Man"
+      })
+  void escapedFields(String value) throws Exception {
+    Book book =
+        new Book(
+            UUID.randomUUID(),
+            "9780132350884",
+            "Title " + value,
+            "Description " + value,
+            new HashSet<>(Arrays.asList("Robert C. Martin", value, "O'Reilly <Media>")),
+            user("wayne"));
+    BookModel escapedOnRead = cut.toModel(book);
+    book.setEscapedFields(BookOutputEscaping.escape(book));
+    BookModel escapedOnWrite = cut.toModel(book);
+
+    for (BookModel bookModel : Arrays.asList(escapedOnRead, escapedOnWrite)) {
+      assertThat(bookModel.getIsbn()).isEqualTo(owaspEncode(book.getIsbn()));
+      assertThat(bookModel.getTitle()).isEqualTo(owaspEncode(book.getTitle()));
+      assertThat(bookModel.getDescription()).isEqualTo(owaspEncode(book.getDescription()));
+      assertThat(bookModel.getAuthors())
+          .containsExactlyInAnyOrderElementsOf(
+              book.getAuthors().stream()
+                  .map(BookModelAssemblerTest::owaspEncode)
+                  .collect(Collectors.toList()));
+    }
+    ObjectMapper objectMapper = new ObjectMapper();
+    assertThat(objectMapper.writeValueAsString(escapedOnWrite))
+        .isEqualTo(objectMapper.writeValueAsString(escapedOnRead));
+  }
+
+  /** The output escaping used before book fields were escaped at write time. */
+  private static String owaspEncode(String value) {
+    return Encode.forJavaScript(Encode.forHtml(value));
+  }
+}
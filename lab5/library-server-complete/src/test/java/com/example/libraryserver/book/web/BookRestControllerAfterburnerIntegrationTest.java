@@ -0,0 +1,63 @@
+package com.example.libraryserver.book.web;
+
+import com.example.libraryserver.DataInitializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = MOCK, properties = "library.jackson.afterburner=true")
+@DirtiesContext
+@ActiveProfiles("test")
+@DisplayName("Listing books with afterburner serialization")
+class BookRestControllerAfterburnerIntegrationTest {
+
+  @Autowired private WebApplicationContext context;
+  @Autowired private ObjectMapper objectMapper;
+
+  private MockMvc mvc;
+
+  @BeforeEach
+  void setup() {
+    mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @DisplayName("registers the afterburner module")
+  void afterburnerRegistered() {
+    assertThat(objectMapper.getRegisteredModuleIds())
+        .contains(new AfterburnerModule().getTypeId());
+  }
+
+  @Test
+  @DisplayName("renders the same representation")
+  void listAllBooks() throws Exception {
+    mvc.perform(get("/books").param("size", "100").with(user("user")))
+        .andExpect(status().isOk())
+        .andExpect(
+            jsonPath(
+                    "$.books[?(@.identifier == '%s')].title",
+                    DataInitializer.BOOK_CLEAN_CODE_IDENTIFIER.toString())
+                .value("Clean Code"))
+        .andExpect(jsonPath("$.books[0]._links.self.href").exists());
+  }
+}
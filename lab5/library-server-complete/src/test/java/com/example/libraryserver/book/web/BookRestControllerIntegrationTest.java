@@ -25,6 +25,7 @@ import org.springframework.web.context.WebApplicationContext;
 import java.util.Collections;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
@@ -101,6 +102,56 @@ class BookRestControllerIntegrationTest {
           .andDo(document("create-book"));
     }
 
+    @Test
+    @DisplayName("in creating books in a batch")
+    void createBooks() throws Exception {
+      String books =
+          objectMapper.writeValueAsString(
+                  new BookModel(
+                      "1234567890123", "title", "description", Collections.singleton("author")))
+              + "\n"
+              + objectMapper.writeValueAsString(
+                  new BookModel("123", "title", "description", Collections.singleton("author")))
+              + "\n"
+              + objectMapper.writeValueAsString(
+                  new BookModel(
+                      "1234567890124", "title", "description", Collections.singleton("author")));
+      mvc.perform(
+              post("/books/batch")
+                  .contentType("application/x-ndjson")
+                  .content(books)
+                  .with(csrf())
+                  .with(user("user").roles("LIBRARY_CURATOR")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.created").value(2))
+          .andExpect(jsonPath("$.rejected").value(1))
+          .andExpect(jsonPath("$.rejections[0].index").value(1))
+          .andExpect(jsonPath("$.rejections[0].errors").exists())
+          .andExpect(jsonPath("$.error").doesNotExist())
+          .andDo(document("create-books-batch"));
+    }
+
+    @Test
+    @DisplayName("in creating books in a batch with a malformed book")
+    void createBooksWithMalformedBook() throws Exception {
+      String books =
+          "{\"isbn\":\"1234567890123\",\"title\":{\"nested\":true},\"authors\":[\"author\"]}\n"
+              + objectMapper.writeValueAsString(
+                  new BookModel(
+                      "1234567890124", "title", "description", Collections.singleton("author")));
+      mvc.perform(
+              post("/books/batch")
+                  .contentType("application/x-ndjson")
+                  .content(books)
+                  .with(csrf())
+                  .with(user("user").roles("LIBRARY_CURATOR")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.created").value(1))
+          .andExpect(jsonPath("$.rejected").value(1))
+          .andExpect(jsonPath("$.rejections[0].index").value(0))
+          .andExpect(jsonPath("$.rejections[0].errors[0]").value("title is malformed"));
+    }
+
     @Test
     @DisplayName("in updating a book")
     void updateBook() throws Exception {
@@ -163,6 +214,65 @@ class BookRestControllerIntegrationTest {
           .andDo(document("get-books"));
     }
 
+    @Test
+    @DisplayName("in getting a page of books")
+    void listBooksPage() throws Exception {
+      mvc.perform(get("/books").param("size", "2").with(user("user")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.books.length()").value(2))
+          .andExpect(jsonPath("$._links.next.href").exists())
+          .andDo(document("get-books-page"));
+    }
+
+    @Test
+    @DisplayName("in getting a single book by isbn")
+    void getSingleBookByIsbn() throws Exception {
+      mvc.perform(get("/books/isbn/{isbn}", "9780132350884").with(user("user")))
+          .andExpect(status().isOk())
+          .andExpect(
+              jsonPath("$.identifier").value(DataInitializer.BOOK_CLEAN_CODE_IDENTIFIER.toString()))
+          .andDo(document("get-book-by-isbn"));
+    }
+
+    @Test
+    @DisplayName("in searching books")
+    void searchBooks() throws Exception {
+      mvc.perform(get("/books/search").param("q", "clean code").with(user("user")))
+          .andExpect(status().isOk())
+          .andExpect(
+              jsonPath("$.books[0].identifier")
+                  .value(DataInitializer.BOOK_CLEAN_CODE_IDENTIFIER.toString()))
+          .andExpect(jsonPath("$._links.self.href").exists())
+          .andDo(document("search-books"));
+    }
+
+    @Test
+    @DisplayName("in exporting all books as NDJSON")
+    void exportBooksNdjson() throws Exception {
+      mvc.perform(get("/books/export").param("format", "ndjson").with(user("user")))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+          .andExpect(
+              content()
+                  .string(
+                      containsString(
+                          "\"identifier\":\""
+                              + DataInitializer.BOOK_CLEAN_CODE_IDENTIFIER
+                              + "\"")))
+          .andDo(document("export-books-ndjson"));
+    }
+
+    @Test
+    @DisplayName("in exporting all books as CSV")
+    void exportBooksCsv() throws Exception {
+      mvc.perform(get("/books/export").param("format", "csv").with(user("user")))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith("text/csv"))
+          .andExpect(
+              content().string(containsString(DataInitializer.BOOK_CLEAN_CODE_IDENTIFIER + ",")))
+          .andDo(document("export-books-csv"));
+    }
+
     @Test
     @DisplayName("in getting a single book")
     void getSingleBook() throws Exception {
@@ -192,6 +302,25 @@ class BookRestControllerIntegrationTest {
   @DisplayName("fails")
   class NegativeTests {
 
+    @Test
+    @DisplayName("in creating books in a batch with unreadable JSON")
+    void createBooksWithUnreadableJson() throws Exception {
+      String books =
+          objectMapper.writeValueAsString(
+                  new BookModel(
+                      "1234567890123", "title", "description", Collections.singleton("author")))
+              + "\n{\"isbn\":\"1234567890124\",";
+      mvc.perform(
+              post("/books/batch")
+                  .contentType("application/x-ndjson")
+                  .content(books)
+                  .with(csrf())
+                  .with(user("user").roles("LIBRARY_CURATOR")))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.created").value(1))
+          .andExpect(jsonPath("$.error").value(containsString("index 1")));
+    }
+
     @Test
     @DisplayName("in creating a book with invalid ISBN number")
     void createBook() throws Exception {
@@ -269,6 +398,23 @@ class BookRestControllerIntegrationTest {
           .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("with conflict in borrowing an already borrowed book")
+    void borrowBorrowedBook() throws Exception {
+      mvc.perform(
+              post(
+                      "/books/{bookIdentifier}/borrow/{userIdentifier}",
+                      DataInitializer.BOOK_CLEAN_CODE_IDENTIFIER,
+                      DataInitializer.BANNER_USER_IDENTIFIER)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .with(csrf())
+                  .with(
+                      user(
+                          userDetails(
+                              DataInitializer.BANNER_USER_IDENTIFIER, "LIBRARY_USER"))))
+          .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("in returning an unknown book")
     void returnUnknownBook() throws Exception {
@@ -319,6 +465,17 @@ class BookRestControllerIntegrationTest {
   @Nested
   class AuthenticationTests {
 
+    @Test
+    @DisplayName("in creating books in a batch")
+    void createBooksUnauthorized() throws Exception {
+      mvc.perform(
+              post("/books/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("[]")
+                  .with(csrf()))
+          .andExpect(status().isUnauthorized());
+    }
+
     @Test
     @DisplayName("in creating a book")
     void createBookUnauthorized() throws Exception {
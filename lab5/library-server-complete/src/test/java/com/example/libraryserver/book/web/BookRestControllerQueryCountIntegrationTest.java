@@ -0,0 +1,93 @@
+package com.example.libraryserver.book.web;
+
+import com.example.libraryserver.book.data.Book;
+import com.example.libraryserver.book.data.BookRepository;
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.data.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+    webEnvironment = MOCK,
+    properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext
+@ActiveProfiles("test")
+@DisplayName("Listing books")
+class BookRestControllerQueryCountIntegrationTest {
+
+  @Autowired private WebApplicationContext context;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+
+  private MockMvc mvc;
+  private Statistics statistics;
+
+  @BeforeEach
+  void setup() {
+    mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private long countStatementsForListing(int expectedBooks) throws Exception {
+    statistics.clear();
+    mvc.perform(get("/books").param("size", "100").with(user("user")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books.length()").value(expectedBooks));
+    return statistics.getPrepareStatementCount();
+  }
+
+  @Test
+  @DisplayName("runs a constant number of queries regardless of the number of books")
+  void listAllBooksQueryCount() throws Exception {
+    int initialBooks = (int) bookRepository.count();
+    long initialStatements = countStatementsForListing(initialBooks);
+
+    for (int i = 0; i < 40; i++) {
+      User borrower =
+          userRepository.save(
+              new User(
+                  UUID.randomUUID(),
+                  "Hans",
+                  "Test" + i,
+                  "test" + i + "@example.com",
+                  "secret",
+                  Collections.singleton("LIBRARY_USER")));
+      bookRepository.save(
+          new Book(
+              UUID.randomUUID(),
+              String.format("%013d", i),
+              "title " + i,
+              "description " + i,
+              Collections.singleton("author " + i),
+              borrower));
+    }
+
+    assertThat(countStatementsForListing(initialBooks + 40)).isEqualTo(initialStatements);
+  }
+}
@@ -0,0 +1,107 @@
+package com.example.libraryserver.common.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Replica routing data source")
+class ReplicaRoutingDataSourceTest {
+
+  private final DataSource primary = database("primary");
+  private final DataSource replica = database("replica");
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readOnlyTransaction;
+  private TransactionTemplate readWriteTransaction;
+
+  private static DataSource database(String name) {
+    DataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create table if not exists instance (name varchar(20))");
+    jdbcTemplate.execute("delete from instance");
+    jdbcTemplate.update("insert into instance (name) values (?)", name);
+    return dataSource;
+  }
+
+  private void setup(Duration maxLag, String lagQuery) {
+    DataSource dataSource =
+        new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(primary, replica, maxLag, lagQuery, Duration.ZERO));
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    readWriteTransaction = new TransactionTemplate(transactionManager);
+  }
+
+  @BeforeEach
+  void setup() {
+    setup(Duration.ofMillis(200), null);
+  }
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private String instance(TransactionTemplate transactionTemplate) {
+    return transactionTemplate.execute(
+        status -> jdbcTemplate.queryForObject("select name from instance", String.class));
+  }
+
+  private void authenticate(String username) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken(username, "secret", "ROLE_LIBRARY_USER"));
+  }
+
+  @DisplayName("routes read-only transactions to the replica")
+  @Test
+  void readOnly() {
+    assertThat(instance(readOnlyTransaction)).isEqualTo("replica");
+  }
+
+  @DisplayName("routes read-write transactions to the primary")
+  @Test
+  void readWrite() {
+    assertThat(instance(readWriteTransaction)).isEqualTo("primary");
+  }
+
+  @DisplayName("routes reads of a user to the primary until the replica caught up with the writes")
+  @Test
+  void readYourWrites() throws InterruptedException {
+    authenticate("bwayne@example.com");
+    assertThat(instance(readWriteTransaction)).isEqualTo("primary");
+    assertThat(instance(readOnlyTransaction)).isEqualTo("primary");
+
+    authenticate("bbanner@example.com");
+    assertThat(instance(readOnlyTransaction)).isEqualTo("replica");
+
+    Thread.sleep(300);
+    authenticate("bwayne@example.com");
+    assertThat(instance(readOnlyTransaction)).isEqualTo("replica");
+  }
+
+  @DisplayName("routes read-only transactions to the primary while the replica lags behind")
+  @Test
+  void replicaLagging() {
+    setup(Duration.ofSeconds(1), "select 5");
+    assertThat(instance(readOnlyTransaction)).isEqualTo("primary");
+
+    setup(Duration.ofSeconds(10), "select 5");
+    assertThat(instance(readOnlyTransaction)).isEqualTo("replica");
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.libraryserver.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Time ordered id generator")
+class TimeOrderedIdGeneratorTest {
+
+  private final TimeOrderedIdGenerator cut = new TimeOrderedIdGenerator();
+
+  @DisplayName("generates version 7 UUIDs with IETF variant")
+  @Test
+  void versionAndVariant() {
+    UUID uuid = cut.generateId();
+    assertThat(uuid.version()).isEqualTo(7);
+    assertThat(uuid.variant()).isEqualTo(2);
+  }
+
+  @DisplayName("generates unique UUIDs ordered by creation time")
+  @Test
+  void timeOrdered() throws InterruptedException {
+    List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      uuids.add(cut.generateId());
+      Thread.sleep(2);
+    }
+    assertThat(uuids).isSorted().doesNotHaveDuplicates();
+  }
+
+  @DisplayName("generates ordered UUIDs within the same millisecond")
+  @Test
+  void orderedWithinMillisecond() {
+    List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      uuids.add(cut.generateId());
+    }
+    assertThat(uuids).isSorted().doesNotHaveDuplicates();
+  }
+
+  @DisplayName("generates ordered UUIDs across threads")
+  @Test
+  void orderedAcrossThreads() throws Exception {
+    ExecutorService first = Executors.newSingleThreadExecutor();
+    ExecutorService second = Executors.newSingleThreadExecutor();
+    try {
+      List<UUID> uuids = new ArrayList<>();
+      for (int i = 0; i < 1_000; i++) {
+        uuids.add(first.submit(cut::generateId).get());
+        uuids.add(second.submit(cut::generateId).get());
+      }
+      assertThat(uuids).isSorted().doesNotHaveDuplicates();
+    } finally {
+      first.shutdownNow();
+      second.shutdownNow();
+    }
+  }
+}
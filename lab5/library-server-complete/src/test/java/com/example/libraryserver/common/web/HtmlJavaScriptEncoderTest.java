@@ -0,0 +1,103 @@
+package com.example.libraryserver.common.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.owasp.encoder.Encode;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Fused HTML and JavaScript encoder")
+class HtmlJavaScriptEncoderTest {
+
+  private static final String SPECIAL_CHARACTERS =
+      "&<>\"'/\\- \t\r\n\u0000\u001f\u007f\u0085\u009f\u00a0\u2028\u2029"
+          + "\ud83d\udcda\ud83d\udcda\ud800\udfff\ufdd0\ufffe\uffff\ufffd";
+
+  private static String expected(String input) {
+    return Encode.forJavaScript(Encode.forHtml(input));
+  }
+
+  private static String randomString(Random random) {
+    StringBuilder builder = new StringBuilder();
+    int length = random.nextInt(40);
+    for (int i = 0; i < length; i++) {
+      switch (random.nextInt(4)) {
+        case 0:
+          builder.append(SPECIAL_CHARACTERS.charAt(random.nextInt(SPECIAL_CHARACTERS.length())));
+          break;
+        case 1:
+          builder.append((char) (0x20 + random.nextInt(0x5f)));
+          break;
+        case 2:
+          builder.append((char) (0xa0 + random.nextInt(0x500)));
+          break;
+        default:
+          builder.append((char) random.nextInt(0x10000));
+      }
+    }
+    return builder.toString();
+  }
+
+  @DisplayName("encodes like the OWASP encoder")
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        "Clean Code",
+        "<script>alert('XSS & \"more\"')</script>",
+        "CI/CD \\ DevOps",
+        "Spider-Man <!-- -->",
+        "J\u00fcrgen M\u00fcller",
+        "Line one\nline two",
+        "\ud83d\udcda Books"
+      })
+  void encodeExamples(String input) {
+    assertThat(HtmlJavaScriptEncoder.encode(input)).isEqualTo(expected(input));
+  }
+
+  @DisplayName("encodes every single character like the OWASP encoder")
+  @Test
+  void encodeEveryCharacter() {
+    for (int ch = Character.MIN_VALUE; ch <= Character.MAX_VALUE; ch++) {
+      String input = "a" + (char) ch + "b";
+      assertThat(HtmlJavaScriptEncoder.encode(input))
+          .as("encoding U+%04X", ch)
+          .isEqualTo(expected(input));
+    }
+  }
+
+  @DisplayName("encodes random input like the OWASP encoder")
+  @Test
+  void encodeRandomInput() {
+    Random random = new Random(4711);
+    char[] buffer = new char[40 * HtmlJavaScriptEncoder.MAX_EXPANSION];
+    for (int i = 0; i < 100_000; i++) {
+      String input = randomString(random);
+      assertThat(HtmlJavaScriptEncoder.encode(input))
+          .as("encoding %s", input)
+          .isEqualTo(expected(input));
+
+      int length = HtmlJavaScriptEncoder.encode(input, buffer);
+      if (length >= 0) {
+        assertThat(new String(buffer, 0, length)).isEqualTo(expected(input));
+      }
+    }
+  }
+
+  @DisplayName("encodes null like the OWASP encoder")
+  @Test
+  void encodeNull() {
+    assertThat(HtmlJavaScriptEncoder.encode(null)).isEqualTo(expected(null));
+  }
+
+  @DisplayName("returns input without characters to encode as is")
+  @Test
+  void encodeNothing() {
+    String input = "Cloud Native Java";
+    assertThat(HtmlJavaScriptEncoder.encode(input)).isSameAs(input);
+  }
+}
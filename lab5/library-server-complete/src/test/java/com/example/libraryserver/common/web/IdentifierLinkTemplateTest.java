@@ -0,0 +1,73 @@
+package com.example.libraryserver.common.web;
+
+import com.example.libraryserver.book.web.BookRestController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@DisplayName("Identifier link template")
+class IdentifierLinkTemplateTest {
+
+  @BeforeEach
+  void setup() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setScheme("https");
+    request.setServerName("library.example.com");
+    request.setServerPort(8443);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @DisplayName("expands to the same href and relation as methodOn")
+  @Test
+  void selfLink() {
+    IdentifierLinkTemplate cut =
+        new IdentifierLinkTemplate(
+            IanaLinkRelations.SELF, id -> methodOn(BookRestController.class).getSingleBook(id));
+
+    for (int i = 0; i < 3; i++) {
+      UUID identifier = UUID.randomUUID();
+      Link expected =
+          linkTo(methodOn(BookRestController.class).getSingleBook(identifier)).withSelfRel();
+      Link link = cut.expand(identifier);
+      assertThat(link.getHref()).isEqualTo(expected.getHref());
+      assertThat(link.getRel()).isEqualTo(expected.getRel());
+      assertThat(link.getAffordances()).isEmpty();
+    }
+  }
+
+  @DisplayName("expands to the same templated href and relation as methodOn")
+  @Test
+  void templatedLink() {
+    IdentifierLinkTemplate cut =
+        new IdentifierLinkTemplate(
+            LinkRelation.of("borrow"),
+            id -> methodOn(BookRestController.class).borrowBook(id, null, null));
+
+    UUID identifier = UUID.randomUUID();
+    Link expected =
+        linkTo(methodOn(BookRestController.class).borrowBook(identifier, null, null))
+            .withRel("borrow");
+    Link link = cut.expand(identifier);
+    assertThat(link.getHref()).isEqualTo(expected.getHref());
+    assertThat(link.getRel()).isEqualTo(expected.getRel());
+    assertThat(link.isTemplated()).isEqualTo(expected.isTemplated());
+  }
+}
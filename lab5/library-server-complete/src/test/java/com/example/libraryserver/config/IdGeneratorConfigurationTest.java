@@ -0,0 +1,50 @@
+package com.example.libraryserver.config;
+
+import com.example.libraryserver.common.id.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Id generator configuration")
+class IdGeneratorConfigurationTest {
+
+  private final ApplicationContextRunner contextRunner =
+      new ApplicationContextRunner().withUserConfiguration(IdGeneratorConfiguration.class);
+
+  @DisplayName("uses random identifiers by default")
+  @Test
+  void randomByDefault() {
+    contextRunner.run(
+        context ->
+            assertThat(context).getBean(IdGenerator.class).isInstanceOf(JdkIdGenerator.class));
+  }
+
+  @DisplayName("uses time ordered identifiers if configured")
+  @Test
+  void timeOrdered() {
+    contextRunner
+        .withPropertyValues("library.id-generator=time-ordered")
+        .run(
+            context ->
+                assertThat(context)
+                    .getBean(IdGenerator.class)
+                    .isInstanceOf(TimeOrderedIdGenerator.class));
+  }
+
+  @DisplayName("fails with a clear message for an unknown generator")
+  @Test
+  void unknownGenerator() {
+    contextRunner
+        .withPropertyValues("library.id-generator=time-orderd")
+        .run(
+            context ->
+                assertThat(context)
+                    .getFailure()
+                    .hasRootCauseInstanceOf(IllegalStateException.class)
+                    .hasStackTraceContaining("Unknown library.id-generator 'time-orderd'"));
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.libraryserver.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BCrypt calibration")
+class BCryptCalibrationTest {
+
+  @DisplayName("keeps the minimum strength if hashing is slower than the target")
+  @Test
+  void calibrateMinimum() {
+    BCryptCalibration calibration = BCryptCalibration.calibrate(Duration.ofNanos(1), 4, 8);
+
+    assertThat(calibration.getStrength()).isEqualTo(4);
+    assertThat(calibration.getTarget()).isEqualTo(Duration.ofNanos(1));
+    assertThat(calibration.getEstimatedHashTime()).isGreaterThan(Duration.ZERO);
+  }
+
+  @DisplayName("does not exceed the maximum strength")
+  @Test
+  void calibrateMaximum() {
+    BCryptCalibration calibration = BCryptCalibration.calibrate(Duration.ofHours(1), 4, 6);
+
+    assertThat(calibration.getStrength()).isEqualTo(6);
+    assertThat(calibration.getEstimatedHashTime()).isLessThanOrEqualTo(Duration.ofHours(1));
+  }
+
+  @DisplayName("raises the strength as long as hashing stays within the target")
+  @Test
+  void calibrateTarget() {
+    BCryptCalibration minimum = BCryptCalibration.calibrate(Duration.ofNanos(1), 4, 4);
+    Duration target = minimum.getEstimatedHashTime().multipliedBy(5);
+
+    BCryptCalibration calibration = BCryptCalibration.calibrate(target, 4, 12);
+
+    assertThat(calibration.getStrength()).isBetween(5, 8);
+    assertThat(calibration.getEstimatedHashTime()).isLessThanOrEqualTo(target);
+  }
+
+  @DisplayName("uses a configured strength without measuring")
+  @Test
+  void fixed() {
+    BCryptCalibration calibration = BCryptCalibration.fixed(12);
+
+    assertThat(calibration.getStrength()).isEqualTo(12);
+    assertThat(calibration.getTarget()).isNull();
+    assertThat(calibration.getEstimatedHashTime()).isNull();
+  }
+}
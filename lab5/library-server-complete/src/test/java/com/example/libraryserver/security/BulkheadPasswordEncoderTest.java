@@ -0,0 +1,119 @@
+package com.example.libraryserver.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@DisplayName("Bulkhead password encoder")
+class BulkheadPasswordEncoderTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private BulkheadPasswordEncoder cut;
+
+  /** Blocks hashing until released, to saturate the executor. */
+  private final PasswordEncoder blockingEncoder =
+      new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+          return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+          started.countDown();
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+          return encode(rawPassword).equals(encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+          return encodedPassword.startsWith("{plain}");
+        }
+      };
+
+  @AfterEach
+  void shutdownEncoder() {
+    release.countDown();
+    cut.shutdown();
+  }
+
+  private double rejected(String reason) {
+    return meterRegistry
+        .get("library.password.hashing.rejected")
+        .tag("reason", reason)
+        .counter()
+        .count();
+  }
+
+  @DisplayName("delegates hashing")
+  @Test
+  void delegate() {
+    cut = new BulkheadPasswordEncoder(blockingEncoder, 1, 1, Duration.ofSeconds(5), meterRegistry);
+    release.countDown();
+
+    assertThat(cut.encode("secret")).isEqualTo("{plain}secret");
+    assertThat(cut.matches("secret", "{plain}secret")).isTrue();
+    assertThat(cut.matches("wrong", "{plain}secret")).isFalse();
+    assertThat(cut.upgradeEncoding("{plain}secret")).isTrue();
+    assertThat(
+            meterRegistry
+                .get("library.password.hashing")
+                .tag("operation", "matches")
+                .timer()
+                .count())
+        .isEqualTo(2);
+  }
+
+  @DisplayName("rejects hashing when the queue is full")
+  @Test
+  void rejectWhenQueueFull() throws Exception {
+    cut = new BulkheadPasswordEncoder(blockingEncoder, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+    CompletableFuture<Boolean> running =
+        CompletableFuture.supplyAsync(() -> cut.matches("secret", "{plain}secret"));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Boolean> queued =
+        CompletableFuture.supplyAsync(() -> cut.matches("secret", "{plain}secret"));
+    while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+      Thread.sleep(5);
+    }
+
+    assertThatExceptionOfType(PasswordHashingUnavailableException.class)
+        .isThrownBy(() -> cut.matches("secret", "{plain}secret"))
+        .withMessage("Too many password hashing requests");
+    assertThat(rejected("queue-full")).isEqualTo(1);
+
+    release.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @DisplayName("gives up waiting for hashing after the timeout")
+  @Test
+  void timeout() {
+    cut =
+        new BulkheadPasswordEncoder(blockingEncoder, 1, 1, Duration.ofMillis(50), meterRegistry);
+
+    assertThatExceptionOfType(PasswordHashingUnavailableException.class)
+        .isThrownBy(() -> cut.matches("secret", "{plain}secret"))
+        .withMessage("Password hashing timed out");
+    assertThat(rejected("timeout")).isEqualTo(1);
+  }
+}
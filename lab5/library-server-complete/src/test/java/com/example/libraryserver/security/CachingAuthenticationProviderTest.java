@@ -0,0 +1,126 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.service.UserDeletedEvent;
+import com.example.libraryserver.user.service.UserSavedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Caching authentication provider")
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+
+  @Mock private AuthenticationProvider delegate;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AuthenticatedUser user =
+      new AuthenticatedUser(
+          new User(
+              UUID.randomUUID(),
+              "Hans",
+              "Test",
+              "test@example.com",
+              "{bcrypt}hash",
+              Collections.singleton("LIBRARY_USER")));
+
+  private CachingAuthenticationProvider cut;
+
+  @BeforeEach
+  void initProvider() {
+    cut = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 100, meterRegistry);
+  }
+
+  private static Authentication credentials(String password) {
+    return new UsernamePasswordAuthenticationToken("test@example.com", password);
+  }
+
+  private void givenSuccessfulAuthentication() {
+    given(delegate.authenticate(any()))
+        .willReturn(
+            new UsernamePasswordAuthenticationToken(user, "secret", user.getAuthorities()));
+  }
+
+  @DisplayName("authenticates repeated credentials only once")
+  @Test
+  void authenticateOnce() {
+    givenSuccessfulAuthentication();
+
+    Authentication first = cut.authenticate(credentials("secret"));
+    Authentication second = cut.authenticate(credentials("secret"));
+
+    verify(delegate, times(1)).authenticate(any());
+    assertThat(second.isAuthenticated()).isTrue();
+    assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+    assertThat(second.getCredentials()).isNull();
+    assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+        .isEqualTo(1);
+  }
+
+  @DisplayName("authenticates different credentials again")
+  @Test
+  void authenticateDifferentCredentials() {
+    givenSuccessfulAuthentication();
+
+    cut.authenticate(credentials("secret"));
+    given(delegate.authenticate(any())).willThrow(new BadCredentialsException("Bad credentials"));
+
+    assertThatExceptionOfType(BadCredentialsException.class)
+        .isThrownBy(() -> cut.authenticate(credentials("wrong")));
+  }
+
+  @DisplayName("does not remember failed authentications")
+  @Test
+  void authenticateFailure() {
+    given(delegate.authenticate(any())).willThrow(new BadCredentialsException("Bad credentials"));
+
+    for (int i = 0; i < 2; i++) {
+      assertThatExceptionOfType(BadCredentialsException.class)
+          .isThrownBy(() -> cut.authenticate(credentials("wrong")));
+    }
+    verify(delegate, times(2)).authenticate(any());
+  }
+
+  @DisplayName("forgets authentications of a changed user")
+  @Test
+  void invalidateOnSave() {
+    givenSuccessfulAuthentication();
+
+    cut.authenticate(credentials("secret"));
+    cut.onUserSaved(new UserSavedEvent(user));
+    cut.authenticate(credentials("secret"));
+
+    verify(delegate, times(2)).authenticate(any());
+  }
+
+  @DisplayName("forgets authentications of a deleted user")
+  @Test
+  void invalidateOnDelete() {
+    givenSuccessfulAuthentication();
+
+    cut.authenticate(credentials("secret"));
+    cut.onUserDeleted(new UserDeletedEvent(user.getIdentifier(), user.getEmail()));
+    cut.authenticate(credentials("secret"));
+
+    verify(delegate, times(2)).authenticate(any());
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.service.UserDeletedEvent;
+import com.example.libraryserver.user.service.UserSavedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Caffeine user cache")
+class CaffeineUserCacheTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CaffeineUserCache cut =
+      new CaffeineUserCache(Duration.ofMinutes(5), 100, Duration.ofMinutes(1), 100, meterRegistry);
+  private final User user =
+      new User(
+          UUID.randomUUID(),
+          "Hans",
+          "Test",
+          "test@example.com",
+          "{bcrypt}hash",
+          Collections.singleton("LIBRARY_USER"));
+
+  @DisplayName("returns cached user")
+  @Test
+  void getUserFromCache() {
+    AuthenticatedUser authenticatedUser = new AuthenticatedUser(user);
+    cut.putUserInCache(authenticatedUser);
+
+    assertThat(cut.getUserFromCache("test@example.com")).isSameAs(authenticatedUser);
+    assertThat(cut.getUserFromCache("other@example.com")).isNull();
+  }
+
+  @DisplayName("removes user after it has been saved with a new email")
+  @Test
+  void onUserSavedWithNewEmail() {
+    cut.putUserInCache(new AuthenticatedUser(user));
+
+    cut.onUserSaved(
+        new UserSavedEvent(
+            new User(
+                user.getIdentifier(),
+                "Hans",
+                "Test",
+                "new@example.com",
+                "{bcrypt}hash",
+                Collections.singleton("LIBRARY_USER"))));
+
+    assertThat(cut.getUserFromCache("test@example.com")).isNull();
+  }
+
+  @DisplayName("removes user after it has been deleted")
+  @Test
+  void onUserDeleted() {
+    cut.putUserInCache(new AuthenticatedUser(user));
+
+    cut.onUserDeleted(new UserDeletedEvent(user.getIdentifier(), user.getEmail()));
+
+    assertThat(cut.getUserFromCache("test@example.com")).isNull();
+  }
+
+  @DisplayName("forgets unknown username after a user has been saved with it")
+  @Test
+  void unknownUsername() {
+    assertThat(cut.isUnknownUsername("test@example.com")).isFalse();
+    cut.putUnknownUsername("test@example.com");
+    assertThat(cut.isUnknownUsername("test@example.com")).isTrue();
+
+    cut.onUserSaved(new UserSavedEvent(user));
+
+    assertThat(cut.isUnknownUsername("test@example.com")).isFalse();
+  }
+
+  @DisplayName("exposes cache metrics")
+  @Test
+  void metrics() {
+    cut.getUserFromCache("test@example.com");
+
+    assertThat(meterRegistry.find("cache.gets").tag("cache", "users").meters()).isNotEmpty();
+    assertThat(meterRegistry.find("cache.gets").tag("cache", "unknown-usernames").meters())
+        .isNotEmpty();
+  }
+}
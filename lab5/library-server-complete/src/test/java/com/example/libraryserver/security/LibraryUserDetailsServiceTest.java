@@ -1,10 +1,12 @@
 package com.example.libraryserver.security;
 
 import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.service.PasswordUpgrade;
 import com.example.libraryserver.user.service.UserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,12 +20,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @DisplayName("Verify UserDetailsService")
 @ExtendWith(MockitoExtension.class)
 class LibraryUserDetailsServiceTest {
 
   @Mock private UserService userService;
+  @Mock private PasswordUpgradeWorker passwordUpgradeWorker;
+  @Mock private CaffeineUserCache userCache;
 
   @InjectMocks private LibraryUserDetailsService cut;
 
@@ -49,40 +55,56 @@ class LibraryUserDetailsServiceTest {
         .isThrownBy(() -> cut.loadUserByUsername("test@example.com"))
         .withMessage("No user found for test@example.com")
         .withNoCause();
+    verify(userCache).putUnknownUsername("test@example.com");
   }
 
-  @DisplayName("can update password for existing user")
+  @DisplayName("reports expected error for known unknown username without lookup")
+  @Test
+  void loadUserByUsernameKnownToBeUnknown() {
+    given(userCache.isUnknownUsername("test@example.com")).willReturn(true);
+    assertThatExceptionOfType(UsernameNotFoundException.class)
+        .isThrownBy(() -> cut.loadUserByUsername("test@example.com"))
+        .withMessage("No user found for test@example.com")
+        .withNoCause();
+    verify(userService, never()).findOneByEmail(any());
+  }
+
+  @DisplayName("queues password upgrade for existing user")
   @Test
   void updatePassword() {
     User user =
         new User("Hans", "Test", "test@example.com", "secret", Collections.singleton("USER"));
     UserDetails userDetails = new AuthenticatedUser(user);
 
-    given(userService.findOneByEmail(any())).willReturn(Optional.of(user));
-    given(userService.save(any()))
-        .willReturn(
-            new User(
-                "Hans", "Test", "test@example.com", "newpassword", Collections.singleton("USER")));
-
     UserDetails result = cut.updatePassword(userDetails, "newpassword");
     assertThat(result)
         .isNotNull()
         .isInstanceOf(AuthenticatedUser.class)
         .extracting(UserDetails::getPassword)
         .isEqualTo("newpassword");
+
+    ArgumentCaptor<PasswordUpgrade> upgrade = ArgumentCaptor.forClass(PasswordUpgrade.class);
+    verify(passwordUpgradeWorker).submit(upgrade.capture());
+    assertThat(upgrade.getValue().getEmail()).isEqualTo("test@example.com");
+    assertThat(upgrade.getValue().getOldPassword()).isEqualTo("secret");
+    assertThat(upgrade.getValue().getNewPassword()).isEqualTo("newpassword");
+    verify(userService, never()).save(any());
   }
 
   @DisplayName("reports expected error when password could not be updated")
   @Test
   void updatePasswordUsernameNotFound() {
-    User user =
-        new User("Hans", "Test", "test@example.com", "secret", Collections.singleton("USER"));
-    UserDetails userDetails = new AuthenticatedUser(user);
+    UserDetails userDetails =
+        org.springframework.security.core.userdetails.User.withUsername("test@example.com")
+            .password("secret")
+            .roles("USER")
+            .build();
 
     given(userService.findOneByEmail(any())).willReturn(Optional.empty());
     assertThatExceptionOfType(UsernameNotFoundException.class)
         .isThrownBy(() -> cut.updatePassword(userDetails, "newpassword"))
         .withMessage("No user found for test@example.com")
         .withNoCause();
+    verify(passwordUpgradeWorker, never()).submit(any());
   }
 }
@@ -0,0 +1,45 @@
+package com.example.libraryserver.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Overload aware authentication entry point")
+class OverloadAwareAuthenticationEntryPointTest {
+
+  private final OverloadAwareAuthenticationEntryPoint cut =
+      new OverloadAwareAuthenticationEntryPoint();
+
+  @DisplayName("asks for basic authentication")
+  @Test
+  void commenceUnauthorized() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    cut.commence(
+        new MockHttpServletRequest(), response, new BadCredentialsException("Bad credentials"));
+
+    assertThat(response.getStatus()).isEqualTo(401);
+    assertThat(response.getHeader("WWW-Authenticate")).isEqualTo("Basic realm=\"Realm\"");
+  }
+
+  @DisplayName("reports saturated password hashing as unavailable")
+  @Test
+  void commenceServiceUnavailable() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    cut.commence(
+        new MockHttpServletRequest(),
+        response,
+        new PasswordHashingUnavailableException(
+            "Too many password hashing requests", new RejectedExecutionException()));
+
+    assertThat(response.getStatus()).isEqualTo(503);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+  }
+}
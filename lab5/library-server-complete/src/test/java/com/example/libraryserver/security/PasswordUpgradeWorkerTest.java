@@ -0,0 +1,130 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.service.PasswordUpgrade;
+import com.example.libraryserver.user.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Password upgrade worker")
+@ExtendWith(MockitoExtension.class)
+class PasswordUpgradeWorkerTest {
+
+  @Mock private UserService userService;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private PasswordUpgradeWorker cut;
+
+  private PasswordUpgradeWorker worker(int maximumBacklog, int batchSize) {
+    cut =
+        new PasswordUpgradeWorker(
+            userService, meterRegistry, maximumBacklog, batchSize, Duration.ofHours(1));
+    return cut;
+  }
+
+  @AfterEach
+  void shutdownWorker() throws InterruptedException {
+    cut.shutdown();
+  }
+
+  private double count(String result) {
+    return meterRegistry.get("library.password.upgrades").tag("result", result).counter().count();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<List<PasswordUpgrade>> capturedBatches(int expectedBatches) {
+    ArgumentCaptor<Collection<PasswordUpgrade>> batches = ArgumentCaptor.forClass(Collection.class);
+    verify(userService, times(expectedBatches)).upgradePasswords(batches.capture());
+    return (List<List<PasswordUpgrade>>) (List<?>) batches.getAllValues();
+  }
+
+  @DisplayName("stores a single upgrade for concurrent logins of a user")
+  @Test
+  void submitTwice() {
+    given(userService.upgradePasswords(anyCollection())).willReturn(1);
+    worker(100, 10);
+
+    cut.submit(new PasswordUpgrade("test@example.com", "{MD5}old", "{bcrypt}new1"));
+    cut.submit(new PasswordUpgrade("test@example.com", "{MD5}old", "{bcrypt}new2"));
+    assertThat(meterRegistry.get("library.password.upgrade.backlog").gauge().value())
+        .isEqualTo(1);
+    cut.storePendingUpgrades();
+
+    List<List<PasswordUpgrade>> batches = capturedBatches(1);
+    assertThat(batches.get(0)).hasSize(1);
+    assertThat(batches.get(0).get(0).getNewPassword()).isEqualTo("{bcrypt}new1");
+    assertThat(count("upgraded")).isEqualTo(1);
+    assertThat(meterRegistry.get("library.password.upgrade.backlog").gauge().value())
+        .isEqualTo(0);
+  }
+
+  @DisplayName("stores upgrades in batches")
+  @Test
+  void storeInBatches() {
+    given(userService.upgradePasswords(anyCollection())).willReturn(2, 2, 1);
+    worker(100, 2);
+
+    for (int i = 0; i < 5; i++) {
+      cut.submit(new PasswordUpgrade("user" + i + "@example.com", "{MD5}old", "{bcrypt}new"));
+    }
+    cut.storePendingUpgrades();
+
+    assertThat(capturedBatches(3)).extracting(List::size).containsExactlyInAnyOrder(2, 2, 1);
+    assertThat(count("upgraded")).isEqualTo(5);
+  }
+
+  @DisplayName("drops upgrades when the backlog is full")
+  @Test
+  void dropWhenFull() {
+    worker(1, 10);
+
+    assertThat(cut.submit(new PasswordUpgrade("a@example.com", "{MD5}old", "{bcrypt}new")))
+        .isTrue();
+    assertThat(cut.submit(new PasswordUpgrade("b@example.com", "{MD5}old", "{bcrypt}new")))
+        .isFalse();
+    assertThat(count("dropped")).isEqualTo(1);
+  }
+
+  @DisplayName("discards a failed batch")
+  @Test
+  void discardFailedBatch() {
+    given(userService.upgradePasswords(anyCollection()))
+        .willThrow(new IllegalStateException("database down"));
+    worker(100, 10);
+
+    cut.submit(new PasswordUpgrade("test@example.com", "{MD5}old", "{bcrypt}new"));
+    cut.storePendingUpgrades();
+    cut.storePendingUpgrades();
+
+    verify(userService, times(1)).upgradePasswords(any());
+    assertThat(count("failed")).isEqualTo(1);
+  }
+
+  @DisplayName("does nothing without pending upgrades")
+  @Test
+  void storeNothing() {
+    worker(100, 10);
+
+    cut.storePendingUpgrades();
+
+    verify(userService, never()).upgradePasswords(any());
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.data.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Role set")
+class RoleSetTest {
+
+  @DisplayName("contains its roles only")
+  @Test
+  void contains() {
+    RoleSet roleSet = RoleSet.of(Arrays.asList("LIBRARY_USER", "LIBRARY_CURATOR"));
+
+    assertThat(roleSet.contains("LIBRARY_USER")).isTrue();
+    assertThat(roleSet.contains("LIBRARY_CURATOR")).isTrue();
+    assertThat(roleSet.contains("LIBRARY_ADMIN")).isFalse();
+    assertThat(roleSet.contains("NEVER_SEEN_" + UUID.randomUUID())).isFalse();
+    assertThat(RoleSet.of(Collections.emptySet()).isEmpty()).isTrue();
+  }
+
+  @DisplayName("maps roles to shared authorities")
+  @Test
+  void toAuthorities() {
+    List<GrantedAuthority> first =
+        RoleSet.of(Arrays.asList("LIBRARY_USER", "LIBRARY_ADMIN")).toAuthorities();
+    List<GrantedAuthority> second =
+        RoleSet.of(Collections.singleton("LIBRARY_USER")).toAuthorities();
+
+    assertThat(first)
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactlyInAnyOrder("ROLE_LIBRARY_USER", "ROLE_LIBRARY_ADMIN");
+    assertThat(first).anySatisfy(a -> assertThat(a).isSameAs(second.get(0)));
+  }
+
+  @DisplayName("supports more roles than fit into a single word")
+  @Test
+  void manyRoles() {
+    List<String> roles = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      roles.add("MANY_ROLES_" + i);
+    }
+    RoleSet roleSet = RoleSet.of(roles);
+
+    assertThat(roleSet.toAuthorities()).hasSize(100);
+    assertThat(roleSet.contains("MANY_ROLES_99")).isTrue();
+    assertThat(roleSet).isEqualTo(RoleSet.of(new HashSet<>(roles)));
+  }
+
+  @DisplayName("is computed once per authenticated user")
+  @Test
+  void authenticatedUser() {
+    AuthenticatedUser user =
+        new AuthenticatedUser(
+            new User(
+                UUID.randomUUID(),
+                "Hans",
+                "Test",
+                "test@example.com",
+                "secret",
+                Collections.singleton("LIBRARY_USER")));
+
+    assertThat(user.getAuthorities()).isSameAs(user.getAuthorities());
+    assertThat(user.getRoleSet().contains("LIBRARY_USER")).isTrue();
+    assertThat(user.getAuthorities())
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactly("ROLE_LIBRARY_USER");
+  }
+}
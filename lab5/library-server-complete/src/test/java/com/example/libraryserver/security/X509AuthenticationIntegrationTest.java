@@ -0,0 +1,143 @@
+package com.example.libraryserver.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.StreamUtils;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "server.ssl.client-auth=need")
+@DirtiesContext
+@ActiveProfiles("test")
+@DisplayName("Authenticating with a client certificate concurrently")
+class X509AuthenticationIntegrationTest {
+
+  private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+  private static final int CLIENTS = 4;
+  private static final int REQUESTS_PER_CLIENT = 50;
+
+  @LocalServerPort private int port;
+
+  @Value("${server.servlet.context-path:}")
+  private String contextPath;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private static KeyStore loadKeyStore(String resource) throws Exception {
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream inputStream =
+        X509AuthenticationIntegrationTest.class.getResourceAsStream(resource)) {
+      keyStore.load(inputStream, KEYSTORE_PASSWORD);
+    }
+    return keyStore;
+  }
+
+  /** Authenticates with the bundled client certificate, and trusts the CA of the server. */
+  private static SSLContext clientSslContext() throws Exception {
+    KeyManagerFactory keyManagerFactory =
+        KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    keyManagerFactory.init(loadKeyStore("/client-keystore.p12"), KEYSTORE_PASSWORD);
+
+    Certificate[] serverChain = loadKeyStore("/server-keystore.p12").getCertificateChain("1");
+    KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    trustStore.load(null, null);
+    trustStore.setCertificateEntry("ca", serverChain[serverChain.length - 1]);
+    TrustManagerFactory trustManagerFactory =
+        TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagerFactory.init(trustStore);
+
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(
+        keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+    return sslContext;
+  }
+
+  /** Sends no session cookie, so each request authenticates with the certificate. */
+  private int getBooks(SSLContext sslContext) throws IOException {
+    URL url = new URL("https://localhost:" + port + contextPath + "/books");
+    HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
+    connection.setSSLSocketFactory(sslContext.getSocketFactory());
+    connection.setRequestProperty("Accept", "application/hal+json");
+    int status = connection.getResponseCode();
+    // reads the body, so the connection can be reused
+    try (InputStream inputStream =
+        status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+      if (inputStream != null) {
+        StreamUtils.drain(inputStream);
+      }
+    }
+    return status;
+  }
+
+  @Test
+  @DisplayName("resolves the user once per certificate")
+  void resolvesUserOnce() throws Exception {
+    SSLContext sslContext = clientSslContext();
+    ExecutorService executorService = Executors.newFixedThreadPool(CLIENTS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> successes = new ArrayList<>();
+    try {
+      for (int i = 0; i < CLIENTS; i++) {
+        successes.add(
+            executorService.submit(
+                () -> {
+                  start.await();
+                  int ok = 0;
+                  for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                    if (getBooks(sslContext) == 200) {
+                      ok++;
+                    }
+                  }
+                  return ok;
+                }));
+      }
+      start.countDown();
+      int ok = 0;
+      for (Future<Integer> success : successes) {
+        ok += success.get(60, TimeUnit.SECONDS);
+      }
+      int requests = CLIENTS * REQUESTS_PER_CLIENT;
+
+      assertThat(ok).isEqualTo(requests);
+      // each request looks up the certificate twice, only the first requests miss
+      assertThat(
+              meterRegistry
+                  .get("cache.gets")
+                  .tag("cache", "x509-principals")
+                  .tag("result", "hit")
+                  .functionCounter()
+                  .count())
+          .isGreaterThanOrEqualTo(2.0 * (requests - CLIENTS));
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
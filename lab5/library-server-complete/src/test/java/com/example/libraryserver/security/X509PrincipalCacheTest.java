@@ -0,0 +1,146 @@
+package com.example.libraryserver.security;
+
+import com.example.libraryserver.user.data.User;
+import com.example.libraryserver.user.service.UserDeletedEvent;
+import com.example.libraryserver.user.service.UserSavedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.security.web.authentication.preauth.x509.SubjectDnX509PrincipalExtractor;
+
+import java.io.InputStream;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("X.509 principal cache")
+@ExtendWith(MockitoExtension.class)
+class X509PrincipalCacheTest {
+
+  private static final String PRINCIPAL = "peter.parker@example.com";
+
+  private static X509Certificate certificate;
+
+  @Mock private UserDetailsService userDetailsService;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AuthenticatedUser user =
+      new AuthenticatedUser(
+          new User(
+              UUID.randomUUID(),
+              "Peter",
+              "Parker",
+              PRINCIPAL,
+              "{bcrypt}hash",
+              Collections.singleton("LIBRARY_CURATOR")));
+
+  private X509PrincipalCache cut;
+
+  @BeforeAll
+  static void loadCertificate() throws Exception {
+    try (InputStream inputStream =
+        X509PrincipalCacheTest.class.getResourceAsStream("/pparker.cer")) {
+      certificate =
+          (X509Certificate)
+              CertificateFactory.getInstance("X.509").generateCertificate(inputStream);
+    }
+  }
+
+  @BeforeEach
+  void initCache() {
+    SubjectDnX509PrincipalExtractor principalExtractor = new SubjectDnX509PrincipalExtractor();
+    principalExtractor.setSubjectDnRegex("CN=(.*?),");
+    cut =
+        new X509PrincipalCache(
+            principalExtractor, userDetailsService, Duration.ofHours(1), 100, meterRegistry);
+  }
+
+  private Object authenticate() {
+    Object principal = cut.extractPrincipal(certificate);
+    return cut.loadUserDetails(new PreAuthenticatedAuthenticationToken(principal, certificate));
+  }
+
+  @DisplayName("extracts the principal from the subject")
+  @Test
+  void extractPrincipal() {
+    assertThat(cut.extractPrincipal(certificate)).isEqualTo(PRINCIPAL);
+  }
+
+  @DisplayName("loads the user only once per certificate")
+  @Test
+  void loadUserDetailsOnce() {
+    given(userDetailsService.loadUserByUsername(PRINCIPAL)).willReturn(user);
+
+    assertThat(authenticate()).isSameAs(user);
+    assertThat(authenticate()).isSameAs(user);
+
+    verify(userDetailsService).loadUserByUsername(PRINCIPAL);
+    assertThat(
+            meterRegistry
+                .get("cache.gets")
+                .tag("cache", "x509-principals")
+                .tag("result", "hit")
+                .functionCounter()
+                .count())
+        .isGreaterThan(0);
+  }
+
+  @DisplayName("loads the user again after it has been saved")
+  @Test
+  void onUserSaved() {
+    given(userDetailsService.loadUserByUsername(PRINCIPAL)).willReturn(user);
+
+    authenticate();
+    cut.onUserSaved(new UserSavedEvent(user));
+    authenticate();
+
+    verify(userDetailsService, times(2)).loadUserByUsername(PRINCIPAL);
+  }
+
+  @DisplayName("loads the user again after it has been deleted")
+  @Test
+  void onUserDeleted() {
+    given(userDetailsService.loadUserByUsername(PRINCIPAL))
+        .willReturn(user)
+        .willThrow(new UsernameNotFoundException("No user found for " + PRINCIPAL));
+
+    authenticate();
+    cut.onUserDeleted(new UserDeletedEvent(user.getIdentifier(), PRINCIPAL));
+
+    assertThatExceptionOfType(UsernameNotFoundException.class).isThrownBy(this::authenticate);
+  }
+
+  @DisplayName("does not keep users beyond the time to live")
+  @Test
+  void timeToLive() {
+    cut =
+        new X509PrincipalCache(
+            new SubjectDnX509PrincipalExtractor(),
+            userDetailsService,
+            Duration.ZERO,
+            100,
+            meterRegistry);
+    given(userDetailsService.loadUserByUsername(PRINCIPAL)).willReturn(user);
+
+    authenticate();
+    authenticate();
+
+    verify(userDetailsService, times(2)).loadUserByUsername(PRINCIPAL);
+  }
+}
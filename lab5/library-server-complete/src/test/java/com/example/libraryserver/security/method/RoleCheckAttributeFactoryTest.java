@@ -0,0 +1,98 @@
+package com.example.libraryserver.security.method;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.access.prepost.PrePostInvocationAttributeFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("Role check attribute factory")
+@ExtendWith(MockitoExtension.class)
+class RoleCheckAttributeFactoryTest {
+
+  @Mock private PrePostInvocationAttributeFactory delegate;
+
+  private static Authentication authentication(String... authorities) {
+    return new TestingAuthenticationToken("user", "secret", authorities);
+  }
+
+  private RoleCheckAttribute compile(String expression) {
+    PreInvocationAttribute attribute =
+        new RoleCheckAttributeFactory(delegate)
+            .createPreInvocationAttribute(null, null, expression);
+    verifyNoInteractions(delegate);
+    assertThat(attribute).isInstanceOf(RoleCheckAttribute.class);
+    return (RoleCheckAttribute) attribute;
+  }
+
+  @DisplayName("compiles isAuthenticated()")
+  @Test
+  void isAuthenticated() {
+    RoleCheckAttribute attribute = compile("isAuthenticated()");
+
+    assertThat(attribute.isGranted(authentication())).isTrue();
+    assertThat(
+            attribute.isGranted(
+                new AnonymousAuthenticationToken(
+                    "key", "anonymous", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"))))
+        .isFalse();
+  }
+
+  @DisplayName("compiles hasRole() with role")
+  @ParameterizedTest
+  @ValueSource(strings = {"hasRole('LIBRARY_CURATOR')", "hasRole('ROLE_LIBRARY_CURATOR')"})
+  void hasRole(String expression) {
+    RoleCheckAttribute attribute = compile(expression);
+
+    assertThat(attribute.isGranted(authentication("ROLE_LIBRARY_CURATOR"))).isTrue();
+    assertThat(attribute.isGranted(authentication("ROLE_LIBRARY_USER", "ROLE_LIBRARY_CURATOR")))
+        .isTrue();
+    assertThat(attribute.isGranted(authentication("ROLE_LIBRARY_USER"))).isFalse();
+    assertThat(attribute.isGranted(authentication("LIBRARY_CURATOR"))).isFalse();
+    assertThat(attribute.isGranted(authentication())).isFalse();
+  }
+
+  @DisplayName("leaves other expressions to the delegate")
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "hasAnyRole('LIBRARY_USER', 'LIBRARY_CURATOR')",
+        "hasRole('LIBRARY_USER') and #id != null",
+        "isAnonymous()"
+      })
+  void delegatesComplexExpressions(String expression) {
+    PreInvocationAttribute expected = mock(PreInvocationAttribute.class);
+    given(delegate.createPreInvocationAttribute(null, null, expression)).willReturn(expected);
+
+    assertThat(
+            new RoleCheckAttributeFactory(delegate)
+                .createPreInvocationAttribute(null, null, expression))
+        .isSameAs(expected);
+  }
+
+  @DisplayName("leaves expressions with pre filter to the delegate")
+  @Test
+  void delegatesPreFilter() {
+    PreInvocationAttribute expected = mock(PreInvocationAttribute.class);
+    given(delegate.createPreInvocationAttribute("filterObject != null", null, "isAuthenticated()"))
+        .willReturn(expected);
+
+    assertThat(
+            new RoleCheckAttributeFactory(delegate)
+                .createPreInvocationAttribute("filterObject != null", null, "isAuthenticated()"))
+        .isSameAs(expected);
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.libraryserver.security.method;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.access.prepost.PreInvocationAuthorizationAdvice;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("Role check pre invocation advice")
+@ExtendWith(MockitoExtension.class)
+class RoleCheckPreInvocationAdviceTest {
+
+  @Mock private PreInvocationAuthorizationAdvice delegate;
+  @Mock private MethodInvocation methodInvocation;
+  @Mock private PreInvocationAttribute expressionAttribute;
+
+  private final Authentication authentication =
+      new TestingAuthenticationToken("user", "secret", "ROLE_LIBRARY_USER");
+
+  @DisplayName("decides compiled attributes without the delegate")
+  @Test
+  void compiledAttribute() {
+    RoleCheckPreInvocationAdvice cut = new RoleCheckPreInvocationAdvice(delegate);
+
+    assertThat(cut.before(authentication, methodInvocation, new RoleCheckAttribute("x", a -> true)))
+        .isTrue();
+    assertThat(
+            cut.before(authentication, methodInvocation, new RoleCheckAttribute("x", a -> false)))
+        .isFalse();
+    verifyNoInteractions(delegate);
+  }
+
+  @DisplayName("leaves other attributes to the delegate")
+  @Test
+  void expressionAttribute() {
+    given(delegate.before(authentication, methodInvocation, expressionAttribute)).willReturn(true);
+
+    assertThat(
+            new RoleCheckPreInvocationAdvice(delegate)
+                .before(authentication, methodInvocation, expressionAttribute))
+        .isTrue();
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.libraryserver.security.token;
+
+import com.example.libraryserver.security.AuthenticatedUser;
+import com.example.libraryserver.user.data.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@DisplayName("Access token codec")
+class AccessTokenCodecTest {
+
+  private static final Instant NOW = Instant.parse("2020-02-01T10:00:00Z");
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(15);
+
+  private static KeyPair oldKeyPair;
+  private static KeyPair newKeyPair;
+
+  private final AuthenticatedUser user =
+      new AuthenticatedUser(
+          new User(
+              UUID.randomUUID(),
+              "Bruce",
+              "Wayne",
+              "bruce.wayne@example.com",
+              "{bcrypt}hash",
+              new HashSet<>(Arrays.asList("LIBRARY_USER", "LIBRARY_CURATOR"))));
+
+  @BeforeAll
+  static void generateKeys() throws Exception {
+    KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+    keyPairGenerator.initialize(2048);
+    oldKeyPair = keyPairGenerator.generateKeyPair();
+    newKeyPair = keyPairGenerator.generateKeyPair();
+  }
+
+  private static AccessTokenCodec codec(
+      String keyId, KeyPair keyPair, Map<String, PublicKey> verificationKeys, Instant now) {
+    return new AccessTokenCodec(
+        keyId,
+        keyPair.getPrivate(),
+        verificationKeys,
+        TIME_TO_LIVE,
+        Clock.fixed(now, ZoneOffset.UTC));
+  }
+
+  private static AccessTokenCodec codec(Instant now) {
+    return codec("old", oldKeyPair, Collections.singletonMap("old", oldKeyPair.getPublic()), now);
+  }
+
+  @DisplayName("restores the user from an issued token")
+  @Test
+  void decodeIssuedToken() {
+    AccessTokenCodec cut = codec(NOW);
+
+    AuthenticatedUser decodedUser = cut.decode(cut.encode(user));
+
+    assertThat(decodedUser.getIdentifier()).isEqualTo(user.getIdentifier());
+    assertThat(decodedUser.getUsername()).isEqualTo(user.getUsername());
+    assertThat(decodedUser.getFirstName()).isEqualTo(user.getFirstName());
+    assertThat(decodedUser.getLastName()).isEqualTo(user.getLastName());
+    assertThat(decodedUser.getRoles()).isEqualTo(user.getRoles());
+    assertThat(AuthorityUtils.authorityListToSet(decodedUser.getAuthorities()))
+        .isEqualTo(AuthorityUtils.authorityListToSet(user.getAuthorities()));
+  }
+
+  @DisplayName("rejects an expired token")
+  @Test
+  void decodeExpiredToken() {
+    String token = codec(NOW).encode(user);
+
+    assertThatExceptionOfType(BadCredentialsException.class)
+        .isThrownBy(() -> codec(NOW.plus(TIME_TO_LIVE)).decode(token))
+        .withMessage("Access token expired");
+  }
+
+  @DisplayName("rejects a token with changed claims")
+  @Test
+  void decodeTamperedToken() {
+    AccessTokenCodec cut = codec(NOW);
+    String[] token = cut.encode(user).split("\\.");
+    AuthenticatedUser admin =
+        new AuthenticatedUser(
+            new User(
+                UUID.randomUUID(),
+                "Clark",
+                "Kent",
+                "clark.kent@example.com",
+                "",
+                Collections.singleton("LIBRARY_ADMIN")));
+    String adminClaims = cut.encode(admin).split("\\.")[1];
+
+    assertThatExceptionOfType(BadCredentialsException.class)
+        .isThrownBy(() -> cut.decode(token[0] + "." + adminClaims + "." + token[2]))
+        .withMessage("Invalid access token signature");
+  }
+
+  @DisplayName("rejects malformed tokens")
+  @Test
+  void decodeMalformedToken() {
+    AccessTokenCodec cut = codec(NOW);
+
+    for (String token : new String[] {"", "abc", "abc.def", "a.b.c", "e30.e30.e30"}) {
+      assertThatExceptionOfType(BadCredentialsException.class)
+          .as("decoding '%s'", token)
+          .isThrownBy(() -> cut.decode(token));
+    }
+  }
+
+  @DisplayName("accepts tokens of a retired key after key rotation")
+  @Test
+  void decodeAfterKeyRotation() {
+    String oldToken = codec(NOW).encode(user);
+
+    Map<String, PublicKey> verificationKeys = new HashMap<>();
+    verificationKeys.put("new", newKeyPair.getPublic());
+    verificationKeys.put("old", oldKeyPair.getPublic());
+    AccessTokenCodec rotated = codec("new", newKeyPair, verificationKeys, NOW);
+
+    assertThat(rotated.decode(oldToken).getIdentifier()).isEqualTo(user.getIdentifier());
+    assertThat(rotated.decode(rotated.encode(user)).getIdentifier())
+        .isEqualTo(user.getIdentifier());
+  }
+
+  @DisplayName("rejects tokens of a removed key")
+  @Test
+  void decodeWithRemovedKey() {
+    String oldToken = codec(NOW).encode(user);
+
+    AccessTokenCodec rotated =
+        codec("new", newKeyPair, Collections.singletonMap("new", newKeyPair.getPublic()), NOW);
+
+    assertThatExceptionOfType(BadCredentialsException.class)
+        .isThrownBy(() -> rotated.decode(oldToken))
+        .withMessage("Access token not signed with a known key");
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.libraryserver.security.token;
+
+import com.example.libraryserver.security.AuthenticatedUser;
+import com.example.libraryserver.user.data.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.restdocs.RestDocumentationContextProvider;
+import org.springframework.restdocs.RestDocumentationExtension;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.modifyUris;
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.prettyPrint;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith({SpringExtension.class, RestDocumentationExtension.class})
+@SpringBootTest(webEnvironment = MOCK)
+@DirtiesContext
+@ActiveProfiles("test")
+@DisplayName("Calling token rest api")
+class AccessTokenRestControllerIntegrationTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Autowired private WebApplicationContext context;
+
+  private MockMvc mvc;
+
+  @BeforeEach
+  void setup(RestDocumentationContextProvider restDocumentationContextProvider) {
+    mvc =
+        MockMvcBuilders.webAppContextSetup(context)
+            .apply(springSecurity())
+            .apply(
+                documentationConfiguration(restDocumentationContextProvider)
+                    .operationPreprocessors()
+                    .withRequestDefaults(prettyPrint(), modifyUris().port(9090))
+                    .withResponseDefaults(prettyPrint(), modifyUris().port(9090)))
+            .build();
+  }
+
+  private String createToken() throws Exception {
+    MvcResult result =
+        mvc.perform(post("/token").with(httpBasic("bruce.wayne@example.com", "wayne")))
+            .andExpect(status().isOk())
+            .andReturn();
+    return objectMapper
+        .readTree(result.getResponse().getContentAsString())
+        .get("access_token")
+        .asText();
+  }
+
+  @Nested
+  @DisplayName("succeeds")
+  class PositiveTests {
+
+    @Test
+    @DisplayName("in creating an access token")
+    void createAccessToken() throws Exception {
+      mvc.perform(post("/token").with(httpBasic("bruce.wayne@example.com", "wayne")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.access_token").exists())
+          .andExpect(jsonPath("$.token_type").value("Bearer"))
+          .andExpect(jsonPath("$.expires_in").value(greaterThan(0)))
+          .andDo(document("create-token"));
+    }
+
+    @Test
+    @DisplayName("in calling the api with an access token")
+    void callWithAccessToken() throws Exception {
+      String token = createToken();
+
+      mvc.perform(get("/books").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+          .andExpect(status().isOk())
+          .andExpect(r -> assertThat(r.getRequest().getSession(false)).isNull())
+          .andDo(document("get-books-with-token"));
+    }
+  }
+
+  @Nested
+  @DisplayName("fails")
+  class NegativeTests {
+
+    @Test
+    @DisplayName("in creating an access token with wrong password")
+    void createAccessTokenWrongPassword() throws Exception {
+      mvc.perform(post("/token").with(httpBasic("bruce.wayne@example.com", "wrong")))
+          .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("in creating an access token with an access token")
+    void createAccessTokenWithAccessToken() throws Exception {
+      String token = createToken();
+
+      mvc.perform(post("/token").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+          .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("in creating an access token with a session but without CSRF token")
+    void createAccessTokenWithSessionWithoutCsrfToken() throws Exception {
+      AuthenticatedUser user =
+          new AuthenticatedUser(
+              new User(
+                  UUID.randomUUID(),
+                  "Bruce",
+                  "Wayne",
+                  "bruce.wayne@example.com",
+                  "wayne",
+                  Collections.singleton("LIBRARY_USER")));
+
+      mvc.perform(post("/token").with(user(user)))
+          .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("in calling the api with an invalid access token")
+    void callWithInvalidAccessToken() throws Exception {
+      String token = createToken();
+
+      mvc.perform(get("/books").header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+          .andExpect(status().isUnauthorized())
+          .andExpect(
+              header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+  }
+}
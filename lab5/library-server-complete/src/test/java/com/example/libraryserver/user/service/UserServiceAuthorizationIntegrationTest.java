@@ -1,6 +1,7 @@
 package com.example.libraryserver.user.service;
 
 import com.example.libraryserver.config.IdGeneratorConfiguration;
+import com.example.libraryserver.config.MethodSecurityConfiguration;
 import com.example.libraryserver.security.AuthenticatedUser;
 import com.example.libraryserver.user.data.User;
 import com.example.libraryserver.user.data.UserRepository;
@@ -15,17 +16,19 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.TestingAuthenticationToken;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+import javax.persistence.EntityManager;
 import java.util.Collections;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
 
 @DisplayName("User service")
 @SpringJUnitConfig(classes = UserServiceAuthorizationIntegrationTest.BookServiceConfig.class)
@@ -33,9 +36,11 @@ class UserServiceAuthorizationIntegrationTest {
 
   @Autowired private UserService cut;
 
+  @MockBean private UserRepository userRepository;
+
   @SuppressWarnings("unused")
   @MockBean
-  private UserRepository userRepository;
+  private EntityManager entityManager;
 
   private void createAuthenticationContext(String... roles) {
     TestSecurityContextHolder.setAuthentication(
@@ -53,8 +58,7 @@ class UserServiceAuthorizationIntegrationTest {
   }
 
   @TestConfiguration
-  @EnableGlobalMethodSecurity(prePostEnabled = true)
-  @Import({UserService.class, IdGeneratorConfiguration.class})
+  @Import({UserService.class, IdGeneratorConfiguration.class, MethodSecurityConfiguration.class})
   static class BookServiceConfig {}
 
   @DisplayName("is authorized for")
@@ -75,15 +79,31 @@ class UserServiceAuthorizationIntegrationTest {
       cut.findOneByEmail("test@example.com");
     }
 
+    @DisplayName("upgrading passwords")
+    @WithAnonymousUser
+    @Test
+    void upgradePasswords() {
+      cut.upgradePasswords(
+          Collections.singleton(
+              new PasswordUpgrade("test@example.com", "{MD5}old", "{bcrypt}new")));
+    }
+
     @DisplayName("finding all books")
     @Test
     void findAll() {
       cut.findAll();
     }
 
+    @DisplayName("streaming all users")
+    @Test
+    void findAllStreaming() {
+      cut.findAll(u -> {});
+    }
+
     @DisplayName("saving a book")
     @Test
     void save() {
+      given(userRepository.save(any(User.class))).willAnswer(i -> i.getArgument(0));
       cut.save(
           new User("Hans", "Test", "test@example.com", "secret", Collections.singleton("USER")));
     }
@@ -117,6 +137,15 @@ class UserServiceAuthorizationIntegrationTest {
           .isThrownBy(() -> cut.findAll());
     }
 
+    @DisplayName("streaming all users with")
+    @ParameterizedTest
+    @ValueSource(strings = {"ROLE_LIBRARY_USER", "ROLE_LIBRARY_CURATOR", "ROLE_USER"})
+    void findAllStreaming(String role) {
+      createAuthenticationContext(role);
+      assertThatExceptionOfType(AccessDeniedException.class)
+          .isThrownBy(() -> cut.findAll(u -> {}));
+    }
+
     @DisplayName("saving a book with")
     @ParameterizedTest
     @ValueSource(strings = {"ROLE_LIBRARY_USER", "ROLE_LIBRARY_CURATOR", "ROLE_USER"})
@@ -0,0 +1,58 @@
+package com.example.libraryserver.user.web;
+
+import com.example.libraryserver.user.data.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.owasp.encoder.Encode;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("User model assembler")
+class UserModelAssemblerTest {
+
+  private final UserModelAssembler cut = new UserModelAssembler();
+
+  @BeforeEach
+  void setup() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @DisplayName("output escapes the values of the model itself")
+  @Test
+  void outputEscaping() {
+    User user =
+        new User(
+            UUID.randomUUID(),
+            "<script>alert('Hans')</script>",
+            "Müller & \"Sons\"",
+            "hans/mueller@example.com",
+            "secret",
+            Collections.singleton("LIBRARY_<USER>"));
+
+    UserModel userModel = cut.toModel(user);
+
+    assertThat(userModel.getFirstName())
+        .isEqualTo(Encode.forJavaScript(Encode.forHtml(user.getFirstName())));
+    assertThat(userModel.getLastName())
+        .isEqualTo(Encode.forJavaScript(Encode.forHtml(user.getLastName())));
+    assertThat(userModel.getEmail())
+        .isEqualTo(Encode.forJavaScript(Encode.forHtml(user.getEmail())));
+    assertThat(userModel.getRoles())
+        .containsExactly(Encode.forJavaScript(Encode.forHtml("LIBRARY_<USER>")));
+    assertThat(userModel.getIdentifier()).isEqualTo(user.getIdentifier());
+  }
+}
@@ -22,6 +22,7 @@ import org.springframework.web.context.WebApplicationContext;
 import java.util.Collections;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.MOCK;
@@ -100,7 +101,7 @@ class UserRestControllerIntegrationTest {
           new CreateUserModel(
               "Hans",
               "Mustermann",
-              "test@example.com",
+              "hans.mustermann@example.com",
               "MySecret4Test",
               Collections.singleton("LIBRARY_ADMIN"));
       mvc.perform(
@@ -119,7 +120,10 @@ class UserRestControllerIntegrationTest {
     void listAllUsers() throws Exception {
       mvc.perform(get("/users").with(user("user").roles("LIBRARY_ADMIN")))
           .andExpect(status().isOk())
+          .andExpect(header().string("Content-Type", startsWith("application/hal+json")))
           .andExpect(jsonPath("$.users.length()").value(greaterThan(0)))
+          .andExpect(jsonPath("$.users[0]._links.self.href").value(startsWith("http")))
+          .andExpect(jsonPath("$._links.self.href").value(endsWith("/users")))
           .andDo(document("get-users"));
     }
 